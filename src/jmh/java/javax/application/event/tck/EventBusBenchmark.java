@@ -0,0 +1,154 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.event.tck;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.application.event.EventBus;
+import javax.application.event.tck.EventBusTest.Event1;
+import javax.application.event.tck.EventBusTest.Event2;
+import javax.application.event.tck.EventBusTest.Event4;
+import javax.application.event.tck.EventBusTest.TestEvent1Handler;
+import javax.application.event.tck.EventBusTest.TestEventHandler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@code EventBus.publishEvent} using the fixtures defined by {@code EventBusTest}.
+ * Implementations must subclass this benchmark and compile it with the JMH annotation processor
+ * ({@code org.openjdk.jmh:jmh-generator-annprocess}) in order to generate the benchmark harness.
+ * <p>
+ * Results are parameterized by number of subscribers, event type mix, and handler shape, which allows
+ * implementations to compare results across releases.
+ *
+ * @author Andres Almiray
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class EventBusBenchmark {
+    @Param({"1", "10", "1000", "100000"})
+    public int subscribers;
+
+    @Param
+    public EventMix eventMix;
+
+    @Param
+    public HandlerShape handlerShape;
+
+    private EventBus eventBus;
+    private List<Object> handlers;
+    private Object[] events;
+    private int cursor;
+
+    protected abstract EventBus resolveEventBus();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        eventBus = resolveEventBus();
+        handlers = new ArrayList<>(subscribers);
+        for (int i = 0; i < subscribers; i++) {
+            Object handler = handlerShape.createHandler();
+            handlers.add(handler);
+            eventBus.subscribe(handler);
+        }
+        events = eventMix.createEvents();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (Object handler : handlers) {
+            eventBus.unsubscribe(handler);
+        }
+        handlers.clear();
+    }
+
+    @Benchmark
+    public void publishEvent() {
+        if (cursor == events.length) {
+            cursor = 0;
+        }
+        eventBus.publishEvent(events[cursor++]);
+    }
+
+    /**
+     * Events published on each invocation. None of the handler shapes subscribe to {@code Event4}, thus
+     * {@code EVENT4} measures the cost of publishing an event that has no matching handlers.
+     */
+    public enum EventMix {
+        EVENT1 {
+            @Override
+            Object[] createEvents() {
+                return new Object[]{new Event1()};
+            }
+        },
+        EVENT2 {
+            @Override
+            Object[] createEvents() {
+                return new Object[]{new Event2()};
+            }
+        },
+        EVENT4 {
+            @Override
+            Object[] createEvents() {
+                return new Object[]{new Event4()};
+            }
+        },
+        MIXED {
+            @Override
+            Object[] createEvents() {
+                return new Object[]{new Event1(), new Event2(), new Event4()};
+            }
+        };
+
+        abstract Object[] createEvents();
+    }
+
+    public enum HandlerShape {
+        SINGLE_METHOD {
+            @Override
+            Object createHandler() {
+                return new TestEvent1Handler();
+            }
+        },
+        MULTI_METHOD {
+            @Override
+            Object createHandler() {
+                return new TestEventHandler();
+            }
+        };
+
+        abstract Object createHandler();
+    }
+}
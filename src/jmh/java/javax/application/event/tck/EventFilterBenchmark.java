@@ -0,0 +1,102 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.event.tck;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.application.event.EventBus;
+import javax.application.event.EventHandler;
+import javax.application.event.tck.EventBusTest.Event3;
+import javax.application.event.tck.EventBusTest.TestEvent3Handler;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of dispatching an event to a handler guarded by an {@code EventFilter} against the cost of
+ * dispatching it to an equivalent unfiltered handler, which exposes the per-event overhead of filters.
+ *
+ * @author Andres Almiray
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class EventFilterBenchmark {
+    @Param
+    public Filtering filtering;
+
+    private EventBus eventBus;
+    private Object eventHandler;
+    private Event3 event;
+
+    protected abstract EventBus resolveEventBus();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        eventBus = resolveEventBus();
+        eventHandler = filtering == Filtering.NONE ? new UnfilteredEvent3Handler() : new TestEvent3Handler();
+        eventBus.subscribe(eventHandler);
+        event = new Event3(filtering != Filtering.REJECT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        eventBus.unsubscribe(eventHandler);
+    }
+
+    @Benchmark
+    public void publishEvent() {
+        eventBus.publishEvent(event);
+    }
+
+    public enum Filtering {
+        /**
+         * The handler has no filters.
+         */
+        NONE,
+        /**
+         * The handler is guarded by {@code Event3Filter}, which accepts the event.
+         */
+        ACCEPT,
+        /**
+         * The handler is guarded by {@code Event3Filter}, which rejects the event.
+         */
+        REJECT
+    }
+
+    public static class UnfilteredEvent3Handler extends EventBusTest.AbstractTestEventHandler {
+        @EventHandler
+        public void handleEvent3(Event3 event) {
+            this.event = event;
+            this.called++;
+        }
+    }
+}
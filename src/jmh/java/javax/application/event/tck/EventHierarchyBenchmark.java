@@ -0,0 +1,156 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.event.tck;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.application.event.EventBus;
+import javax.application.event.EventHandler;
+import javax.application.event.tck.EventHierarchyDispatchTest.Level1Event;
+import javax.application.event.tck.EventHierarchyDispatchTest.Level2Event;
+import javax.application.event.tck.EventHierarchyDispatchTest.Level3Event;
+import javax.application.event.tck.EventHierarchyDispatchTest.Level4Event;
+import javax.application.event.tck.EventHierarchyDispatchTest.Level5Event;
+import javax.application.event.tck.EventHierarchyDispatchTest.Level6Event;
+import javax.application.tck.IsolatingClassLoader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of publishing events whose concrete classes are many and distinct, but share a hierarchy of
+ * the given depth. Each distinct class is a copy of the leaf event class of that depth, such as {@code Leaf3Event}
+ * which extends {@code Level3Event}, defined by its own {@code IsolatingClassLoader}.
+ * <p>
+ * Implementations that cache type-to-handler resolution show a publish cost that is mostly independent of depth,
+ * whereas implementations that walk the type hierarchy on every publish show a cost that grows with depth.
+ * Handlers are subscribed to {@code Level1Event} and to the {@code Event} marker interface, thus every event reaches
+ * exactly two handlers regardless of depth.
+ *
+ * @author Andres Almiray
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class EventHierarchyBenchmark {
+    private static final Class<?>[] LEAVES = {
+        Leaf1Event.class,
+        Leaf2Event.class,
+        Leaf3Event.class,
+        Leaf4Event.class,
+        Leaf5Event.class,
+        Leaf6Event.class
+    };
+
+    @Param({"1", "3", "6"})
+    public int depth;
+
+    @Param({"1", "100", "1000"})
+    public int distinctTypes;
+
+    private EventBus eventBus;
+    private Level1CountingHandler level1Handler;
+    private MarkerCountingHandler markerHandler;
+    private Object[] events;
+    private int cursor;
+
+    protected abstract EventBus resolveEventBus();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        eventBus = resolveEventBus();
+        level1Handler = new Level1CountingHandler();
+        markerHandler = new MarkerCountingHandler();
+        eventBus.subscribe(level1Handler);
+        eventBus.subscribe(markerHandler);
+
+        events = new Object[distinctTypes];
+        for (int i = 0; i < distinctTypes; i++) {
+            Class<?> eventClass = new IsolatingClassLoader(LEAVES[depth - 1]).loadIsolatedClass();
+            events[i] = eventClass.getDeclaredConstructor().newInstance();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        eventBus.unsubscribe(level1Handler);
+        eventBus.unsubscribe(markerHandler);
+        if (level1Handler.called == 0 || markerHandler.called == 0) {
+            throw new IllegalStateException("Events of depth " + depth + " were not delivered to every handler:" +
+                " Level1Event handler called " + level1Handler.called + " times," +
+                " Event handler called " + markerHandler.called + " times");
+        }
+    }
+
+    @Benchmark
+    public void publishEvent() {
+        if (cursor == events.length) {
+            cursor = 0;
+        }
+        eventBus.publishEvent(events[cursor++]);
+    }
+
+    public static class Level1CountingHandler {
+        private long called;
+
+        @EventHandler
+        public void handleLevel1Event(Level1Event event) {
+            called++;
+        }
+    }
+
+    public static class MarkerCountingHandler {
+        private long called;
+
+        @EventHandler
+        public void handleEvent(EventBusTest.Event event) {
+            called++;
+        }
+    }
+
+    public static class Leaf1Event extends Level1Event {
+    }
+
+    public static class Leaf2Event extends Level2Event {
+    }
+
+    public static class Leaf3Event extends Level3Event {
+    }
+
+    public static class Leaf4Event extends Level4Event {
+    }
+
+    public static class Leaf5Event extends Level5Event {
+    }
+
+    public static class Leaf6Event extends Level6Event {
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.event.tck;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.application.event.EventBus;
+import javax.application.event.tck.EventBusPriorityScalingTest.PriorityEvent;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of publishing an event to, and subscribing a handler next to, a growing number of prioritized
+ * handlers. Implementations that sort handlers on every publish show a publish cost that grows faster than the
+ * number of handlers.
+ *
+ * @author Andres Almiray
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class PriorityDispatchBenchmark {
+    @Param({"10", "100", "1000", "10000"})
+    public int handlers;
+
+    private EventBus eventBus;
+    private List<Object> eventHandlers;
+    private PriorityEvent event;
+    private Object extraHandler;
+
+    protected abstract EventBus resolveEventBus();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        eventBus = resolveEventBus();
+        Random random = new Random(377L);
+        eventHandlers = EventBusPriorityScalingTest.subscribeRandomHandlers(eventBus, handlers, random);
+        event = new PriorityEvent(handlers + 1);
+        extraHandler = EventBusPriorityScalingTest.createPrioritizedHandler(random.nextInt(handlers));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        eventHandlers.forEach(eventBus::unsubscribe);
+    }
+
+    @Benchmark
+    public int publishEvent() {
+        event.reset();
+        eventBus.publishEvent(event);
+        return event.size();
+    }
+
+    @Benchmark
+    public void subscribeAndUnsubscribe() {
+        eventBus.subscribe(extraHandler);
+        eventBus.unsubscribe(extraHandler);
+    }
+}
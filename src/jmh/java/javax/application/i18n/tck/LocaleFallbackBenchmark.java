@@ -0,0 +1,96 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.i18n.tck;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.application.i18n.MessageSource;
+import javax.application.i18n.NoSuchMessageException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of {@code MessageSource.getMessage(String, Locale)} by the level of the fallback chain at which
+ * the message is found, using the bundles of {@code LocaleFallbackTest}. Every lookup asks for the most specific
+ * locale of a language, for example {@code de_CH_tck}, thus {@code ROOT} walks the whole chain whereas
+ * {@code VARIANT} is found in the first bundle.
+ * <p>
+ * Implementations that cache fallback resolution show similar costs for every level.
+ *
+ * @author Andres Almiray
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class LocaleFallbackBenchmark {
+    public enum FallbackLevel {
+        VARIANT(LocaleFallbackTest.KEY_VARIANT),
+        COUNTRY(LocaleFallbackTest.KEY_COUNTRY),
+        LANGUAGE(LocaleFallbackTest.KEY_LANGUAGE),
+        ROOT(LocaleFallbackTest.KEY_ROOT);
+
+        private final String key;
+
+        FallbackLevel(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    @Param({"VARIANT", "COUNTRY", "LANGUAGE", "ROOT"})
+    public FallbackLevel level;
+
+    private MessageSource messageSource;
+    private Locale[] locales;
+    private String key;
+    private int cursor;
+
+    protected abstract MessageSource resolveMessageSource(String basename);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        messageSource = resolveMessageSource(LocaleFallbackTest.BASENAME);
+        locales = LocaleFallbackTest.LEAF_LOCALES.toArray(new Locale[0]);
+        key = level.getKey();
+    }
+
+    @Benchmark
+    public String getMessage() throws NoSuchMessageException {
+        if (cursor == locales.length) {
+            cursor = 0;
+        }
+        return messageSource.getMessage(key, locales[cursor++]);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.i18n.tck;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.application.i18n.MessageSource;
+import javax.application.i18n.NoSuchMessageException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code MessageSource.getMessage} for a key that resolves, for a missing key with a default message, and
+ * for a missing key that throws {@code NoSuchMessageException}. The key {@code key.proverb} must resolve whereas
+ * {@code key.bogus} must not. Run with {@code -prof gc} to see the bytes allocated per call
+ * ({@code gc.alloc.rate.norm}).
+ *
+ * @author Andres Almiray
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class MessageSourceMissBenchmark {
+    private static final String KEY_PROVERB = "key.proverb";
+    private static final String KEY_BOGUS = "key.bogus";
+    private static final String DEFAULT_VALUE = "not found";
+
+    private MessageSource messageSource;
+
+    protected abstract MessageSource resolveMessageSource();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        messageSource = resolveMessageSource();
+    }
+
+    @Benchmark
+    public String hit() throws NoSuchMessageException {
+        return messageSource.getMessage(KEY_PROVERB);
+    }
+
+    @Benchmark
+    public String missWithDefault() {
+        return messageSource.getMessage(KEY_BOGUS, DEFAULT_VALUE);
+    }
+
+    @Benchmark
+    public Object missThrowing() {
+        try {
+            return messageSource.getMessage(KEY_BOGUS);
+        } catch (NoSuchMessageException e) {
+            return e;
+        }
+    }
+}
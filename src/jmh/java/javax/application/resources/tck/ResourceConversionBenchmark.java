@@ -0,0 +1,81 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.resources.tck;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.application.resources.NoSuchResourceException;
+import javax.application.resources.ResourceResolver;
+import javax.application.resources.tck.ResourceResolverConversionTest.ConversionCase;
+import javax.application.resources.tck.ResourceResolverConversionTest.Overload;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@code ResourceResolver.resolveResourceConverted} by target type and overload, using
+ * the conversion cases of {@code ResourceResolverConversionTest}, whose keys the resolver must be able to resolve.
+ * Run with {@code -prof gc} to see the bytes allocated per call ({@code gc.alloc.rate.norm}).
+ *
+ * @author Andres Almiray
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class ResourceConversionBenchmark {
+    @Param({"integer", "long", "double", "boolean"})
+    public String targetType;
+
+    @Param({"PLAIN", "LOCALE", "ARGS", "ARGS_LOCALE"})
+    public Overload overload;
+
+    private ResourceResolver resourceResolver;
+    private ConversionCase<?> conversionCase;
+
+    protected abstract ResourceResolver resolveResourceResolver();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        resourceResolver = resolveResourceResolver();
+        for (ConversionCase<?> candidate : ResourceResolverConversionTest.defaultConversionCases()) {
+            if (candidate.getName().equals(targetType)) {
+                conversionCase = candidate;
+            }
+        }
+        if (conversionCase == null) {
+            throw new IllegalArgumentException("Unknown target type " + targetType);
+        }
+    }
+
+    @Benchmark
+    public Object resolveResourceConverted() throws NoSuchResourceException {
+        return overload.resolve(resourceResolver, conversionCase);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.resources.tck;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.application.resources.ResourceInjector;
+import javax.application.resources.ResourceResolver;
+import javax.application.resources.tck.ResourceInjectorTest.Bean;
+import javax.application.tck.IsolatingClassLoader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of the first injection into an instance of a class, when the {@code @InjectedResource} metadata
+ * of that class must be computed, with the cost of injecting into further instances of the same class.
+ * <p>
+ * {@code coldInjection} runs once per iteration in single shot mode, injecting into an instance of a fresh copy of
+ * {@code ResourceInjectorTest.Bean} defined by its own {@code IsolatingClassLoader}. The superclass is shared by
+ * all copies, thus only the metadata of the copy itself is cold. {@code warmInjection} injects into new instances
+ * of the same class.
+ *
+ * @author Andres Almiray
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class ResourceInjectorBenchmark {
+    private ResourceInjector resourceInjector;
+    private Object coldInstance;
+
+    protected abstract ResourceInjector resolveResourceInjector(ResourceResolver resourceResolver, ClassScanListener classScanListener);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        resourceInjector = resolveResourceInjector(ResourceInjectorCachingTest.createBeanResourceResolver(), ClassScanListener.NONE);
+        resourceInjector.injectResources(new Bean());
+    }
+
+    @Setup(Level.Iteration)
+    public void defineColdClass() throws Exception {
+        coldInstance = new IsolatingClassLoader(Bean.class).loadIsolatedClass().getDeclaredConstructor().newInstance();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 10)
+    @Measurement(iterations = 50)
+    public Object coldInjection() {
+        resourceInjector.injectResources(coldInstance);
+        return coldInstance;
+    }
+
+    @Benchmark
+    public Object warmInjection() {
+        Bean bean = new Bean();
+        resourceInjector.injectResources(bean);
+        return bean;
+    }
+}
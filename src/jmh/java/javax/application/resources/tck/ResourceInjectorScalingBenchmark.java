@@ -0,0 +1,75 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.resources.tck;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.application.resources.ResourceInjector;
+import javax.application.resources.ResourceResolver;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the cost of {@code ResourceInjector.injectResources} scales with the depth of the class hierarchy of
+ * a bean and the number of injection points declared at each level, using fixtures generated by
+ * {@code InjectionFixture}. The injection metadata of the fixture is warmed up before measuring.
+ *
+ * @author Andres Almiray
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class ResourceInjectorScalingBenchmark {
+    @Param({"1", "4", "8"})
+    public int depth;
+
+    @Param({"4", "32", "128"})
+    public int fieldsPerLevel;
+
+    private InjectionFixture fixture;
+    private ResourceInjector resourceInjector;
+
+    protected abstract ResourceInjector resolveResourceInjector(ResourceResolver resourceResolver, ClassScanListener classScanListener);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        fixture = InjectionFixture.generate(depth, fieldsPerLevel);
+        resourceInjector = resolveResourceInjector(new CountingResourceResolver(fixture.getResources()), ClassScanListener.NONE);
+        resourceInjector.injectResources(fixture.newInstance());
+    }
+
+    @Benchmark
+    public Object injectResources() {
+        Object bean = fixture.newInstance();
+        resourceInjector.injectResources(bean);
+        return bean;
+    }
+}
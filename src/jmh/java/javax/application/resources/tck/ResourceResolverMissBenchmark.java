@@ -0,0 +1,95 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.resources.tck;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.application.resources.NoSuchResourceException;
+import javax.application.resources.ResourceResolver;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code ResourceResolver.resolveResource} and {@code ResourceResolver.resolveResourceConverted} for a key
+ * that resolves, for a missing key with a default value, and for a missing key that throws
+ * {@code NoSuchResourceException}. The keys {@code key.proverb} and {@code key.integer} (holding {@code 42}) must
+ * resolve whereas {@code key.bogus} must not. Run with {@code -prof gc} to see the bytes allocated per call
+ * ({@code gc.alloc.rate.norm}).
+ *
+ * @author Andres Almiray
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class ResourceResolverMissBenchmark {
+    private static final String KEY_PROVERB = "key.proverb";
+    private static final String KEY_INTEGER = "key.integer";
+    private static final String KEY_BOGUS = "key.bogus";
+    private static final String DEFAULT_VALUE = "not found";
+    private static final Integer DEFAULT_INTEGER = 7;
+
+    private ResourceResolver resourceResolver;
+
+    protected abstract ResourceResolver resolveResourceResolver();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        resourceResolver = resolveResourceResolver();
+    }
+
+    @Benchmark
+    public Object hit() throws NoSuchResourceException {
+        return resourceResolver.resolveResource(KEY_PROVERB);
+    }
+
+    @Benchmark
+    public Object missWithDefault() {
+        return resourceResolver.resolveResource(KEY_BOGUS, DEFAULT_VALUE);
+    }
+
+    @Benchmark
+    public Object missThrowing() {
+        try {
+            return resourceResolver.resolveResource(KEY_BOGUS);
+        } catch (NoSuchResourceException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Integer convertedHit() throws NoSuchResourceException {
+        return resourceResolver.resolveResourceConverted(KEY_INTEGER, Integer.class);
+    }
+
+    @Benchmark
+    public Integer convertedMissWithDefault() {
+        return resourceResolver.resolveResourceConverted(KEY_BOGUS, DEFAULT_INTEGER, Integer.class);
+    }
+}
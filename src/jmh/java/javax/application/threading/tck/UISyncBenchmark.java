@@ -0,0 +1,99 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.threading.tck;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.application.threading.ThreadingHandler;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per call latency of {@code executeInsideUISync} when invoked from the UI thread, where the task is
+ * expected to run inline, and from a benchmark thread, where the task must be handed off to the UI thread.
+ * <p>
+ * On thread calls are issued in batches of {@value #ON_THREAD_BATCH} from a single task running on the UI thread,
+ * so that the cost of reaching the UI thread is amortized over the batch.
+ *
+ * @author Andres Almiray
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class UISyncBenchmark {
+    private static final int ON_THREAD_BATCH = 1000;
+    private static final Runnable NOOP = () -> {};
+    private static final Callable<Boolean> TRUE = () -> Boolean.TRUE;
+
+    public enum Overload {
+        RUNNABLE,
+        CALLABLE
+    }
+
+    @Param({"RUNNABLE", "CALLABLE"})
+    public Overload overload;
+
+    private ThreadingHandler threadingHandler;
+
+    protected abstract ThreadingHandler resolveThreadingHandler();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        threadingHandler = resolveThreadingHandler();
+    }
+
+    @Benchmark
+    public Object executeInsideUISyncOffThread() {
+        return call();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ON_THREAD_BATCH)
+    public Object executeInsideUISyncOnThread() {
+        return threadingHandler.executeInsideUISync(() -> {
+            Object result = null;
+            for (int i = 0; i < ON_THREAD_BATCH; i++) {
+                result = call();
+            }
+            return result;
+        });
+    }
+
+    private Object call() {
+        if (overload == Overload.RUNNABLE) {
+            threadingHandler.executeInsideUISync(NOOP);
+            return null;
+        }
+        return threadingHandler.executeInsideUISync(TRUE);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.threading.tck;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.application.threading.ThreadingHandler;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the round trip of a burst of tasks posted with {@code ThreadingHandler.executeInsideUIAsync(Runnable)}:
+ * the burst is enqueued and the benchmark waits until its last task has run on the UI thread. Scores are reported
+ * per burst; implementations that batch UI thread hand-offs show a score that grows slower than the burst size.
+ * <p>
+ * Run with {@code -t N} to post bursts from N producer threads concurrently.
+ *
+ * @author Andres Almiray
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class UIThreadBenchmark {
+    private static final Runnable NOOP = () -> {};
+
+    @Param({"1", "100", "10000"})
+    public int burstSize;
+
+    private ThreadingHandler threadingHandler;
+
+    protected abstract ThreadingHandler resolveThreadingHandler();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        threadingHandler = resolveThreadingHandler();
+    }
+
+    @Benchmark
+    public void executeInsideUIAsyncBurst() throws InterruptedException {
+        CountDownLatch drained = new CountDownLatch(1);
+        for (int i = 1; i < burstSize; i++) {
+            threadingHandler.executeInsideUIAsync(NOOP);
+        }
+        threadingHandler.executeInsideUIAsync(drained::countDown);
+        drained.await();
+    }
+}
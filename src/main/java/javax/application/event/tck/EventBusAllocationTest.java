@@ -0,0 +1,58 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.event.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import javax.application.event.EventBus;
+import javax.application.event.tck.EventBusTest.Event1;
+import javax.application.event.tck.EventBusTest.TestEvent1Handler;
+import javax.application.tck.AllocationBudgetTest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Verifies that {@code EventBus.publishEvent} stays within the allocation budget supplied by the implementation.
+ * The same event instance is published to a single subscriber over and over, thus only allocations made by the
+ * {@code EventBus} while dispatching are accounted for.
+ *
+ * @author Andres Almiray
+ */
+public abstract class EventBusAllocationTest extends AllocationBudgetTest {
+    protected abstract EventBus resolveEventBus();
+
+    /**
+     * Maximum bytes {@code publishEvent} may allocate per call.
+     */
+    protected abstract long publishEventBytesBudget();
+
+    @Test
+    public void publishEvent_allocation_budget(TestReporter reporter) throws Exception {
+        // given:
+        EventBus eventBus = resolveEventBus();
+        TestEvent1Handler eventHandler = new TestEvent1Handler();
+        eventBus.subscribe(eventHandler);
+        Event1 event = new Event1();
+
+        // expect:
+        assertBytesPerOperation(reporter, "event.publish", publishEventBytesBudget(), () -> eventBus.publishEvent(event));
+        assertThat(eventHandler.called, equalTo(warmupOperations() + measuredOperations()));
+    }
+}
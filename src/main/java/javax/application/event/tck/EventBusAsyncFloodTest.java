@@ -0,0 +1,328 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.event.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import javax.application.event.EventBus;
+import javax.application.event.EventHandler;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Floods {@code EventBus.publishEventAsync} with events directed to deliberately slow handlers and classifies how
+ * the implementation copes with producers that outrun handlers, see {@link FloodBehavior}.
+ * <p>
+ * Heap usage is sampled through the {@code MemoryMXBean} while flooding. The flood stops once {@link #eventCount()}
+ * events have been published, {@link #floodDuration()} elapses, or heap usage exceeds {@link #heapUsageLimit()} of
+ * the maximum heap, whichever happens first. Handlers are then sped up so that the backlog may be drained.
+ * <p>
+ * Events that are not delivered count as dropped only when the implementation reports them through
+ * {@link #discardedEventCount(EventBus)}, or when no further event is delivered until {@link #drainTimeout()}
+ * elapses. Deliveries that pause for {@link #stallTimeout()} while events are outstanding and then resume are
+ * reported as a stall, which fails the test.
+ * <p>
+ * Implementations that claim bounded memory usage must override {@link #boundedProfile()} to return {@code true},
+ * in which case the test fails if the backlog grows without bound or if retained heap exceeds
+ * {@link #retainedHeapBudget()}. Otherwise the observed behavior is only reported.
+ *
+ * @author Andres Almiray
+ */
+public abstract class EventBusAsyncFloodTest {
+    protected abstract EventBus resolveEventBus();
+
+    protected boolean boundedProfile() {
+        return false;
+    }
+
+    protected long eventCount() {
+        return 2_000_000L;
+    }
+
+    protected Duration floodDuration() {
+        return Duration.ofSeconds(5);
+    }
+
+    protected Duration handlerDelay() {
+        return Duration.ofNanos(100_000L);
+    }
+
+    protected Duration drainTimeout() {
+        return Duration.ofSeconds(30);
+    }
+
+    /**
+     * Time without deliveries, while events are outstanding, after which the backlog is considered stalled.
+     */
+    protected Duration stallTimeout() {
+        return Duration.ofSeconds(1);
+    }
+
+    /**
+     * Returns the number of events published to the given bus that the implementation discarded instead of
+     * delivering, or a negative value if the implementation does not report discarded events.
+     */
+    protected long discardedEventCount(EventBus eventBus) {
+        return -1L;
+    }
+
+    /**
+     * Backlog size (published but not yet delivered events) above which growth is considered unbounded.
+     */
+    protected long unboundedBacklogThreshold() {
+        return 100_000L;
+    }
+
+    /**
+     * Maximum heap retained by undelivered events at the end of the flood, only checked by the bounded profile.
+     */
+    protected long retainedHeapBudget() {
+        return 64L * 1024 * 1024;
+    }
+
+    /**
+     * Fraction of the maximum heap after which the flood is stopped to prevent an {@code OutOfMemoryError}.
+     */
+    protected double heapUsageLimit() {
+        return 0.75d;
+    }
+
+    @Test
+    public void flood_publishEventAsync_with_slow_handlers(TestReporter reporter) throws Exception {
+        // given:
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        EventBus eventBus = resolveEventBus();
+        SlowEventHandler eventHandler = new SlowEventHandler(handlerDelay().toNanos());
+        eventBus.subscribe(eventHandler);
+
+        LongAdder published = new LongAdder();
+        AtomicBoolean flooding = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicLong peakHeap = new AtomicLong();
+        AtomicLong peakBacklog = new AtomicLong();
+        long maxHeap = memory.getHeapMemoryUsage().getMax();
+        long heapLimit = maxHeap > 0 ? (long) (maxHeap * heapUsageLimit()) : Long.MAX_VALUE;
+
+        memory.gc();
+        long baselineHeap = memory.getHeapMemoryUsage().getUsed();
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            long used = memory.getHeapMemoryUsage().getUsed();
+            peakHeap.accumulateAndGet(used, Math::max);
+            peakBacklog.accumulateAndGet(published.sum() - eventHandler.delivered.sum(), Math::max);
+            if (used > heapLimit) {
+                flooding.set(false);
+            }
+        }, 0L, 20L, TimeUnit.MILLISECONDS);
+
+        Thread publisher = new Thread(() -> {
+            try {
+                long count = eventCount();
+                for (long i = 0; i < count && flooding.get(); i++) {
+                    eventBus.publishEventAsync(new FloodEvent(i));
+                    published.increment();
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        }, "tck-flood-publisher");
+
+        // when:
+        long start = System.nanoTime();
+        publisher.start();
+        publisher.join(floodDuration().toMillis());
+        flooding.set(false);
+        long publishedCount = published.sum();
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000d;
+        long backlog = publishedCount - eventHandler.delivered.sum();
+
+        memory.gc();
+        long retainedHeap = Math.max(0L, memory.getHeapMemoryUsage().getUsed() - baselineHeap);
+        sampler.shutdownNow();
+
+        eventHandler.slow = false;
+        publisher.join(drainTimeout().toMillis());
+        long totalPublished = published.sum();
+        Drain drain = awaitDrain(eventBus, eventHandler, totalPublished);
+        eventBus.unsubscribe(eventHandler);
+
+        FloodBehavior behavior = classify(drain, Math.max(backlog, peakBacklog.get()));
+
+        reporter.publishEntry("flood.behavior", behavior.name());
+        reporter.publishEntry("flood.published.count", String.valueOf(totalPublished));
+        reporter.publishEntry("flood.delivered.count", String.valueOf(eventHandler.delivered.sum()));
+        reporter.publishEntry("flood.publish.ops_per_sec", String.valueOf((long) (publishedCount / elapsedSeconds)));
+        reporter.publishEntry("flood.backlog.max.count", String.valueOf(Math.max(backlog, peakBacklog.get())));
+        reporter.publishEntry("flood.heap.peak.bytes", String.valueOf(Math.max(0L, peakHeap.get() - baselineHeap)));
+        reporter.publishEntry("flood.heap.retained.bytes", String.valueOf(retainedHeap));
+
+        // then:
+        assertAll(
+            () -> assertThat("publishEventAsync does not fail", failure.get(), nullValue()),
+            () -> assertThat("Publisher terminates", publisher.isAlive(), equalTo(false)),
+            () -> assertThat("Deliveries do not stall with events outstanding", behavior, not(equalTo(FloodBehavior.STALLED)))
+        );
+        if (boundedProfile()) {
+            assertAll(
+                () -> assertThat("Backlog is bounded", behavior, not(equalTo(FloodBehavior.UNBOUNDED_GROWTH))),
+                () -> assertThat("Retained heap", retainedHeap, lessThanOrEqualTo(retainedHeapBudget()))
+            );
+        }
+    }
+
+    private FloodBehavior classify(Drain drain, long maxBacklog) {
+        switch (drain) {
+            case STALLED:
+                return FloodBehavior.STALLED;
+            case DISCARDED:
+            case QUIET:
+                return FloodBehavior.DROPPING;
+            case TIMED_OUT:
+                return FloodBehavior.UNBOUNDED_GROWTH;
+            default:
+                return maxBacklog > unboundedBacklogThreshold() ? FloodBehavior.UNBOUNDED_GROWTH : FloodBehavior.BLOCKING;
+        }
+    }
+
+    private Drain awaitDrain(EventBus eventBus, SlowEventHandler eventHandler, long published) throws InterruptedException {
+        long now = System.nanoTime();
+        long deadline = now + drainTimeout().toNanos();
+        long stallNanos = stallTimeout().toNanos();
+        long lastDelivered = eventHandler.delivered.sum();
+        long lastDeliveryAt = now;
+        boolean stalled = false;
+        while (true) {
+            long delivered = eventHandler.delivered.sum();
+            long discarded = discardedEventCount(eventBus);
+            now = System.nanoTime();
+            if (delivered != lastDelivered) {
+                // deliveries resumed after a pause with events outstanding
+                stalled |= now - lastDeliveryAt > stallNanos;
+                lastDelivered = delivered;
+                lastDeliveryAt = now;
+            }
+            if (delivered + Math.max(0L, discarded) >= published) {
+                if (stalled) {
+                    return Drain.STALLED;
+                }
+                return delivered >= published ? Drain.DELIVERED : Drain.DISCARDED;
+            }
+            if (now >= deadline) {
+                if (stalled) {
+                    return Drain.STALLED;
+                }
+                return now - lastDeliveryAt > stallNanos ? Drain.QUIET : Drain.TIMED_OUT;
+            }
+            Thread.sleep(10L);
+        }
+    }
+
+    private enum Drain {
+        /**
+         * Every published event was delivered.
+         */
+        DELIVERED,
+        /**
+         * Every published event was either delivered or reported as discarded by the implementation.
+         */
+        DISCARDED,
+        /**
+         * Deliveries paused with events outstanding, then resumed.
+         */
+        STALLED,
+        /**
+         * Deliveries stopped with events outstanding and did not resume until the drain timeout.
+         */
+        QUIET,
+        /**
+         * Events were still being delivered when the drain timeout elapsed.
+         */
+        TIMED_OUT
+    }
+
+    /**
+     * How an implementation reacts when events are published faster than they can be handled.
+     */
+    public enum FloodBehavior {
+        /**
+         * Publishers are slowed down, the backlog stays bounded and every event is delivered.
+         */
+        BLOCKING,
+        /**
+         * Publishers are not slowed down, some events are never delivered, either because the implementation reports
+         * discarding them or because deliveries stop for good.
+         */
+        DROPPING,
+        /**
+         * Publishers are not slowed down, the backlog (and with it, the heap) grows with the number of events.
+         */
+        UNBOUNDED_GROWTH,
+        /**
+         * Deliveries pause while events are outstanding, then resume. Always a failure.
+         */
+        STALLED
+    }
+
+    public static class FloodEvent implements EventBusTest.Event {
+        private final long sequence;
+
+        public FloodEvent(long sequence) {
+            this.sequence = sequence;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+    }
+
+    public static class SlowEventHandler {
+        private final LongAdder delivered = new LongAdder();
+        private final long delay;
+        private volatile boolean slow = true;
+
+        public SlowEventHandler(long delay) {
+            this.delay = delay;
+        }
+
+        @EventHandler
+        public void handleFloodEvent(FloodEvent event) {
+            if (slow) {
+                LockSupport.parkNanos(delay);
+            }
+            delivered.increment();
+        }
+    }
+}
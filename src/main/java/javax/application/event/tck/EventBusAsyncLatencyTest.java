@@ -0,0 +1,178 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.event.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import javax.application.event.EventBus;
+import javax.application.event.EventHandler;
+import javax.application.tck.LatencyHistogram;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Measures the end-to-end delivery latency of {@code EventBus.publishEventAsync}.
+ * <p>
+ * Events are published at a fixed rate and stamped with their scheduled publication time, thus a stalled
+ * publisher does not hide the latency of events that should have been published in the meantime. Latencies
+ * are recorded into a {@code LatencyHistogram}; percentiles are published as report entries and checked against
+ * configurable budgets. The full distribution is written to {@link #histogramDirectory()} when set.
+ *
+ * @author Andres Almiray
+ */
+public abstract class EventBusAsyncLatencyTest {
+    protected abstract EventBus resolveEventBus();
+
+    protected int warmupEventCount() {
+        return 10_000;
+    }
+
+    protected int eventCount() {
+        return 50_000;
+    }
+
+    protected Duration publishInterval() {
+        return Duration.ofNanos(50_000L);
+    }
+
+    protected Duration deliveryTimeout() {
+        return Duration.ofSeconds(30);
+    }
+
+    protected Duration p50Budget() {
+        return Duration.ofMillis(1);
+    }
+
+    protected Duration p99Budget() {
+        return Duration.ofMillis(10);
+    }
+
+    protected Duration p999Budget() {
+        return Duration.ofMillis(50);
+    }
+
+    protected Duration maxBudget() {
+        return Duration.ofSeconds(1);
+    }
+
+    /**
+     * Directory where the latency distribution is written to. Returns {@code null} by default, which disables export.
+     */
+    protected Path histogramDirectory() {
+        return null;
+    }
+
+    @Test
+    public void publish_event_asynchronously_within_latency_budget(TestReporter reporter) throws Exception {
+        // given:
+        EventBus eventBus = resolveEventBus();
+        publishAndAwait(eventBus, warmupEventCount(), new LatencyHistogram());
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // when:
+        boolean delivered = publishAndAwait(eventBus, eventCount(), histogram);
+
+        reporter.publishEntry("async.latency.p50.nanos", String.valueOf(histogram.getValueAtPercentile(50d)));
+        reporter.publishEntry("async.latency.p99.nanos", String.valueOf(histogram.getValueAtPercentile(99d)));
+        reporter.publishEntry("async.latency.p999.nanos", String.valueOf(histogram.getValueAtPercentile(99.9d)));
+        reporter.publishEntry("async.latency.max.nanos", String.valueOf(histogram.getMaxValue()));
+        exportHistogram(histogram);
+
+        // then:
+        assertAll(
+            () -> assertThat("All events are delivered", delivered, equalTo(true)),
+            () -> assertThat(histogram.getTotalCount(), equalTo((long) eventCount())),
+            () -> assertThat("p50", histogram.getValueAtPercentile(50d), lessThanOrEqualTo(p50Budget().toNanos())),
+            () -> assertThat("p99", histogram.getValueAtPercentile(99d), lessThanOrEqualTo(p99Budget().toNanos())),
+            () -> assertThat("p99.9", histogram.getValueAtPercentile(99.9d), lessThanOrEqualTo(p999Budget().toNanos())),
+            () -> assertThat("max", histogram.getMaxValue(), lessThanOrEqualTo(maxBudget().toNanos()))
+        );
+    }
+
+    private boolean publishAndAwait(EventBus eventBus, int count, LatencyHistogram histogram) throws InterruptedException {
+        LatencyRecordingHandler eventHandler = new LatencyRecordingHandler(histogram, count);
+        eventBus.subscribe(eventHandler);
+        try {
+            long interval = publishInterval().toNanos();
+            long scheduledTime = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                while (System.nanoTime() < scheduledTime) {
+                    Thread.yield();
+                }
+                eventBus.publishEventAsync(new TimedEvent(scheduledTime));
+                scheduledTime += interval;
+            }
+            return eventHandler.latch.await(deliveryTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } finally {
+            eventBus.unsubscribe(eventHandler);
+        }
+    }
+
+    private void exportHistogram(LatencyHistogram histogram) throws IOException {
+        Path directory = histogramDirectory();
+        if (directory == null) {
+            return;
+        }
+        Files.createDirectories(directory);
+        Path file = directory.resolve(getClass().getName() + "-async-latency.txt");
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# EventBus.publishEventAsync delivery latency (microseconds)" + System.lineSeparator());
+            histogram.writePercentileDistribution(writer, 1000d);
+        }
+    }
+
+    public static class TimedEvent implements EventBusTest.Event {
+        private final long publishedAt;
+
+        public TimedEvent(long publishedAt) {
+            this.publishedAt = publishedAt;
+        }
+
+        public long getPublishedAt() {
+            return publishedAt;
+        }
+    }
+
+    public static class LatencyRecordingHandler {
+        private final LatencyHistogram histogram;
+        private final CountDownLatch latch;
+
+        public LatencyRecordingHandler(LatencyHistogram histogram, int expectedEvents) {
+            this.histogram = histogram;
+            this.latch = new CountDownLatch(expectedEvents);
+        }
+
+        @EventHandler
+        public void handleTimedEvent(TimedEvent event) {
+            histogram.recordValue(Math.max(0L, System.nanoTime() - event.getPublishedAt()));
+            latch.countDown();
+        }
+    }
+}
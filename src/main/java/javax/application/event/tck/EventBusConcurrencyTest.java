@@ -0,0 +1,196 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.event.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import javax.application.event.EventBus;
+import javax.application.event.EventHandler;
+import java.time.Duration;
+import java.util.ConcurrentModificationException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Verifies that implementations of {@code EventBus} remain consistent when handlers are subscribed and
+ * unsubscribed on some threads while events are published on others.
+ * <p>
+ * Publisher threads publish events synchronously for the configured duration while churn threads repeatedly
+ * subscribe and unsubscribe fresh handler instances. Publish and churn throughput are published as report entries.
+ *
+ * @author Andres Almiray
+ */
+public abstract class EventBusConcurrencyTest {
+    protected abstract EventBus resolveEventBus();
+
+    protected int publisherThreads() {
+        return Math.max(2, Runtime.getRuntime().availableProcessors());
+    }
+
+    protected int churnThreads() {
+        return 2;
+    }
+
+    protected Duration testDuration() {
+        return Duration.ofSeconds(2);
+    }
+
+    @Test
+    public void publish_while_subscribing_and_unsubscribing(TestReporter reporter) throws Exception {
+        // given:
+        EventBus eventBus = resolveEventBus();
+        StableEventHandler stableHandler = new StableEventHandler();
+        eventBus.subscribe(stableHandler);
+
+        AtomicLong clock = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder published = new LongAdder();
+        LongAdder churned = new LongAdder();
+        LongAdder lateDeliveries = new LongAdder();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch startSignal = new CountDownLatch(1);
+
+        int publishers = publisherThreads();
+        int churners = churnThreads();
+        ExecutorService executor = Executors.newFixedThreadPool(publishers + churners);
+        for (int i = 0; i < publishers; i++) {
+            executor.execute(guard(failures, () -> {
+                startSignal.await();
+                while (running.get()) {
+                    eventBus.publishEvent(new StampedEvent(clock.incrementAndGet()));
+                    published.increment();
+                }
+            }));
+        }
+        for (int i = 0; i < churners; i++) {
+            executor.execute(guard(failures, () -> {
+                startSignal.await();
+                while (running.get()) {
+                    ChurnEventHandler handler = new ChurnEventHandler(lateDeliveries);
+                    eventBus.subscribe(handler);
+                    eventBus.unsubscribe(handler);
+                    handler.unsubscribedAt = clock.incrementAndGet();
+                    churned.increment();
+                }
+            }));
+        }
+
+        // when:
+        long start = System.nanoTime();
+        startSignal.countDown();
+        Thread.sleep(testDuration().toMillis());
+        running.set(false);
+        executor.shutdown();
+        boolean terminated = executor.awaitTermination(testDuration().toMillis() + 10_000L, TimeUnit.MILLISECONDS);
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000d;
+        eventBus.unsubscribe(stableHandler);
+
+        reporter.publishEntry("publish.ops_per_sec", String.valueOf((long) (published.sum() / elapsedSeconds)));
+        reporter.publishEntry("churn.ops_per_sec", String.valueOf((long) (churned.sum() / elapsedSeconds)));
+
+        // then:
+        assertAll(
+            () -> assertThat("All threads terminate", terminated, equalTo(true)),
+            () -> assertThat("No ConcurrentModificationException is thrown",
+                failures.stream().anyMatch(EventBusConcurrencyTest::isConcurrentModification), equalTo(false)),
+            () -> assertThat("No failures occur", failures, empty()),
+            () -> assertThat("Stable handlers receive every event", stableHandler.received.sum(), equalTo(published.sum())),
+            () -> assertThat("No events are delivered after unsubscribe", lateDeliveries.sum(), equalTo(0L))
+        );
+    }
+
+    private static boolean isConcurrentModification(Throwable throwable) {
+        for (Throwable t = throwable; t != null; t = t.getCause()) {
+            if (t instanceof ConcurrentModificationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Runnable guard(Queue<Throwable> failures, Task task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                failures.add(t);
+            }
+        };
+    }
+
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    public static class StampedEvent implements EventBusTest.Event {
+        private final long stamp;
+
+        public StampedEvent(long stamp) {
+            this.stamp = stamp;
+        }
+
+        public long getStamp() {
+            return stamp;
+        }
+    }
+
+    public static class StableEventHandler {
+        private final LongAdder received = new LongAdder();
+
+        @EventHandler
+        public void handleStampedEvent(StampedEvent event) {
+            received.increment();
+        }
+    }
+
+    public static class ChurnEventHandler {
+        private final LongAdder lateDeliveries;
+        private volatile long unsubscribedAt;
+
+        public ChurnEventHandler(LongAdder lateDeliveries) {
+            this.lateDeliveries = lateDeliveries;
+        }
+
+        @EventHandler
+        public void handleStampedEvent(StampedEvent event) {
+            // events stamped after unsubscribe returned were published after the handler was removed
+            long unsubscribed = unsubscribedAt;
+            if (unsubscribed != 0 && event.getStamp() > unsubscribed) {
+                lateDeliveries.increment();
+            }
+        }
+
+        @EventHandler
+        public void handleEvent1(EventBusTest.Event1 event) {
+            // registers a second event type per subscription
+        }
+    }
+}
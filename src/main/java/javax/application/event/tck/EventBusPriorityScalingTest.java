@@ -0,0 +1,207 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.event.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import javax.application.event.EventBus;
+import javax.application.event.EventHandler;
+import javax.application.tck.IsolatingClassLoader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Verifies that implementations of {@code EventBus} honor handler priorities when thousands of prioritized
+ * handlers are subscribed to the same event type, and reports how subscribe and publish costs scale with the
+ * number of handlers.
+ * <p>
+ * Priorities are compile time constants, thus every handler is an instance of its own copy of
+ * {@code PrioritizedEventHandler}, with a random priority between 0 and the number of handlers. Handlers with the
+ * same priority may be invoked in any order.
+ *
+ * @author Andres Almiray
+ */
+public abstract class EventBusPriorityScalingTest {
+    private static final int PRIORITY_PLACEHOLDER = 0x0377_0377;
+
+    protected abstract EventBus resolveEventBus();
+
+    protected int handlerCount() {
+        return 10_000;
+    }
+
+    protected int[] scalingHandlerCounts() {
+        return new int[]{10, 100, 1_000, 10_000};
+    }
+
+    protected int publishCount() {
+        return 100;
+    }
+
+    @Test
+    public void publish_event_honors_priority_of_many_handlers() {
+        // given:
+        EventBus eventBus = resolveEventBus();
+        List<Object> eventHandlers = subscribeRandomHandlers(eventBus, handlerCount(), new Random(377L));
+        PriorityEvent event = new PriorityEvent(handlerCount());
+
+        // when:
+        eventBus.publishEvent(event);
+        eventHandlers.forEach(eventBus::unsubscribe);
+
+        // then:
+        assertAll(
+            () -> assertThat("Handler invocations", event.size(), equalTo(handlerCount())),
+            () -> assertThat("First out of order invocation", event.firstOutOfOrderIndex(), equalTo(-1))
+        );
+    }
+
+    @Test
+    public void subscribe_and_publish_cost_by_handler_count(TestReporter reporter) {
+        double smallestPublishCost = 0;
+        double largestPublishCost = 0;
+        int[] handlerCounts = scalingHandlerCounts();
+        for (int i = 0; i < handlerCounts.length; i++) {
+            // given:
+            int handlerCount = handlerCounts[i];
+            EventBus eventBus = resolveEventBus();
+            List<Object> eventHandlers = createRandomHandlers(handlerCount, new Random(377L));
+
+            // when:
+            long start = System.nanoTime();
+            eventHandlers.forEach(eventBus::subscribe);
+            long subscribeCost = (System.nanoTime() - start) / handlerCount;
+
+            publish(eventBus, handlerCount, publishCount());
+            start = System.nanoTime();
+            PriorityEvent event = publish(eventBus, handlerCount, publishCount());
+            double publishCost = (System.nanoTime() - start) / (double) publishCount() / handlerCount;
+            eventHandlers.forEach(eventBus::unsubscribe);
+
+            reporter.publishEntry("priority.subscribe." + handlerCount + ".nanos", String.valueOf(subscribeCost));
+            reporter.publishEntry("priority.publish." + handlerCount + ".nanos",
+                String.format(Locale.ROOT, "%.2f", publishCost));
+
+            if (i == 0) {
+                smallestPublishCost = publishCost;
+            }
+            largestPublishCost = publishCost;
+
+            // then:
+            assertThat(event.firstOutOfOrderIndex(), equalTo(-1));
+            assertThat(event.size(), equalTo(handlerCount));
+        }
+        reporter.publishEntry("priority.publish.scaling.ratio",
+            String.format(Locale.ROOT, "%.2f", largestPublishCost / smallestPublishCost));
+    }
+
+    private static PriorityEvent publish(EventBus eventBus, int handlerCount, int times) {
+        PriorityEvent event = null;
+        for (int i = 0; i < times; i++) {
+            event = new PriorityEvent(handlerCount);
+            eventBus.publishEvent(event);
+        }
+        return event;
+    }
+
+    protected static List<Object> subscribeRandomHandlers(EventBus eventBus, int count, Random random) {
+        List<Object> eventHandlers = createRandomHandlers(count, random);
+        eventHandlers.forEach(eventBus::subscribe);
+        return eventHandlers;
+    }
+
+    protected static List<Object> createRandomHandlers(int count, Random random) {
+        List<Object> eventHandlers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            eventHandlers.add(createPrioritizedHandler(random.nextInt(count)));
+        }
+        return eventHandlers;
+    }
+
+    /**
+     * Returns a handler of {@code PriorityEvent} with the given priority, whose class is distinct from the class of
+     * any other handler.
+     */
+    protected static Object createPrioritizedHandler(int priority) {
+        try {
+            return new IsolatingClassLoader(PrioritizedEventHandler.class, PRIORITY_PLACEHOLDER, priority)
+                .loadIsolatedClass()
+                .getDeclaredConstructor()
+                .newInstance();
+        } catch (IOException | ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Records the priority of every handler it is delivered to, in invocation order.
+     */
+    public static class PriorityEvent implements EventBusTest.Event {
+        private int[] priorities;
+        private int size;
+
+        public PriorityEvent(int expectedHandlers) {
+            this.priorities = new int[Math.max(1, expectedHandlers)];
+        }
+
+        public void record(int priority) {
+            if (size == priorities.length) {
+                int[] copy = new int[size * 2];
+                System.arraycopy(priorities, 0, copy, 0, size);
+                priorities = copy;
+            }
+            priorities[size++] = priority;
+        }
+
+        public void reset() {
+            size = 0;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int firstOutOfOrderIndex() {
+            for (int i = 1; i < size; i++) {
+                if (priorities[i] < priorities[i - 1]) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Template for prioritized handlers. Every handler is a copy of this class defined by its own
+     * {@code IsolatingClassLoader}, with {@code PRIORITY_PLACEHOLDER} replaced by the priority of the handler.
+     */
+    public static class PrioritizedEventHandler {
+        @EventHandler(priority = PRIORITY_PLACEHOLDER)
+        public void handlePriorityEvent(PriorityEvent event) {
+            event.record(PRIORITY_PLACEHOLDER);
+        }
+    }
+}
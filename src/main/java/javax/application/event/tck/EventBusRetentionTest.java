@@ -0,0 +1,216 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.event.tck;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import javax.application.event.EventBus;
+import javax.application.event.EventFilter;
+import javax.application.event.EventHandler;
+import javax.application.event.EventMetadata;
+import javax.application.tck.IsolatingClassLoader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Verifies that implementations of {@code EventBus} do not retain handlers once they have been unsubscribed.
+ * <p>
+ * Reachability is checked with {@code WeakReference}s while polling the garbage collector. Handler instances, the
+ * filter instances created on their behalf, and handler classes (along with any reflective {@code Method} cached
+ * for them) must all become unreachable. The latter is checked by loading a handler class with a throwaway
+ * {@code ClassLoader}. The heap retained by the bus per subscribed handler is published as a report entry.
+ *
+ * @author Andres Almiray
+ */
+public abstract class EventBusRetentionTest {
+    protected abstract EventBus resolveEventBus();
+
+    protected Duration gcTimeout() {
+        return Duration.ofSeconds(10);
+    }
+
+    protected int footprintHandlerCount() {
+        return 10_000;
+    }
+
+    @BeforeEach
+    public void resetFilters() {
+        TrackedEventFilter.INSTANCES.clear();
+    }
+
+    @Test
+    public void unsubscribed_handler_is_not_retained() throws Exception {
+        // given:
+        EventBus eventBus = resolveEventBus();
+        EventBusTest.TestEventHandler eventHandler = new EventBusTest.TestEventHandler();
+        WeakReference<Object> reference = new WeakReference<>(eventHandler);
+        eventBus.subscribe(eventHandler);
+        eventBus.publishEvent(new EventBusTest.Event1());
+        eventBus.publishEvent(new EventBusTest.Event2());
+
+        // when:
+        eventBus.unsubscribe(eventHandler);
+        eventHandler = null;
+
+        // then:
+        assertThat("Handler is collected", awaitCollected(reference), equalTo(true));
+    }
+
+    @Test
+    public void filters_of_unsubscribed_handler_are_not_retained() throws Exception {
+        // given:
+        EventBus eventBus = resolveEventBus();
+        TrackedFilterEventHandler eventHandler = new TrackedFilterEventHandler();
+        WeakReference<Object> reference = new WeakReference<>(eventHandler);
+        eventBus.subscribe(eventHandler);
+        eventBus.publishEvent(new EventBusTest.Event3(true));
+
+        // when:
+        eventBus.unsubscribe(eventHandler);
+        eventHandler = null;
+        boolean handlerCollected = awaitCollected(reference);
+
+        // then:
+        assertAll(
+            () -> assertThat("Handler is collected", handlerCollected, equalTo(true)),
+            () -> assertThat("Filters are collected", awaitCollected(TrackedEventFilter.INSTANCES), equalTo(true))
+        );
+    }
+
+    @Test
+    public void handler_class_of_unsubscribed_handler_is_not_retained() throws Exception {
+        // given:
+        EventBus eventBus = resolveEventBus();
+        IsolatingClassLoader classLoader = new IsolatingClassLoader(IsolatedEventHandler.class);
+        Class<?> handlerClass = classLoader.loadIsolatedClass();
+        Object eventHandler = handlerClass.getDeclaredConstructor().newInstance();
+        WeakReference<Object> classReference = new WeakReference<>(handlerClass);
+        eventBus.subscribe(eventHandler);
+        eventBus.publishEvent(new EventBusTest.Event1());
+
+        // when:
+        eventBus.unsubscribe(eventHandler);
+        eventHandler = null;
+        handlerClass = null;
+        classLoader = null;
+
+        // then:
+        assertThat("Handler class is collected", awaitCollected(classReference), equalTo(true));
+    }
+
+    @Test
+    public void retained_heap_per_subscribed_handler(TestReporter reporter) throws Exception {
+        // given:
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        EventBus eventBus = resolveEventBus();
+        int count = footprintHandlerCount();
+        List<Object> eventHandlers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            eventHandlers.add(i % 2 == 0 ? new EventBusTest.TestEvent1Handler() : new EventBusTest.TestEventHandler());
+        }
+        long baseline = usedHeapAfterGc(memory);
+
+        // when:
+        eventHandlers.forEach(eventBus::subscribe);
+        long subscribed = usedHeapAfterGc(memory);
+        eventHandlers.forEach(eventBus::unsubscribe);
+        long unsubscribed = usedHeapAfterGc(memory);
+
+        // then:
+        reporter.publishEntry("retention.heap.per_handler.bytes",
+            String.valueOf(Math.max(0L, subscribed - baseline) / count));
+        reporter.publishEntry("retention.heap.after_unsubscribe.bytes",
+            String.valueOf(Math.max(0L, unsubscribed - baseline)));
+    }
+
+    private boolean awaitCollected(WeakReference<?> reference) throws InterruptedException {
+        List<WeakReference<?>> references = new ArrayList<>();
+        references.add(reference);
+        return awaitCollected(references);
+    }
+
+    private boolean awaitCollected(Iterable<? extends WeakReference<?>> references) throws InterruptedException {
+        long deadline = System.nanoTime() + gcTimeout().toNanos();
+        while (System.nanoTime() < deadline) {
+            boolean collected = true;
+            for (WeakReference<?> reference : references) {
+                collected &= reference.get() == null;
+            }
+            if (collected) {
+                return true;
+            }
+            System.gc();
+            Thread.sleep(50L);
+        }
+        return false;
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) throws InterruptedException {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            memory.gc();
+            Thread.sleep(50L);
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+
+    public static class TrackedEventFilter implements EventFilter<EventBusTest.Event3> {
+        private static final Queue<WeakReference<TrackedEventFilter>> INSTANCES = new ConcurrentLinkedQueue<>();
+
+        public TrackedEventFilter() {
+            INSTANCES.add(new WeakReference<>(this));
+        }
+
+        @Override
+        public Boolean apply(EventMetadata<EventBusTest.Event3> metadata) {
+            return metadata.getEvent().isActive();
+        }
+    }
+
+    public static class TrackedFilterEventHandler extends EventBusTest.AbstractTestEventHandler {
+        @EventHandler(filters = {TrackedEventFilter.class})
+        public void handleEvent3(EventBusTest.Event3 event) {
+            this.event = event;
+            this.called++;
+        }
+    }
+
+    /**
+     * Loaded by {@code IsolatingClassLoader} thus it may be unloaded once the bus releases it.
+     */
+    public static class IsolatedEventHandler extends EventBusTest.AbstractTestEventHandler {
+        @EventHandler
+        public void handleEvent1(EventBusTest.Event1 event) {
+            this.event = event;
+            this.called++;
+        }
+    }
+}
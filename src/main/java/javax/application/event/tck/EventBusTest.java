@@ -25,7 +25,9 @@ import javax.application.event.EventHandler;
 import javax.application.event.EventMetadata;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
@@ -69,7 +71,7 @@ public abstract class EventBusTest {
     }
 
     @Test
-    public void publish_event_asynchronously() throws Exception {
+    public void publish_event_asynchronously() {
         // given:
         EventBus eventBus = resolveEventBus();
         TestEvent1Handler eventHandler = new TestEvent1Handler();
@@ -78,7 +80,7 @@ public abstract class EventBusTest {
         //when:
         eventBus.publishEventAsync(new Event1());
         eventBus.publishEventAsync(new Event2());
-        Thread.sleep(200L);
+        await().timeout(2, TimeUnit.SECONDS).until(() -> eventHandler.event instanceof Event1);
 
         // then:
         assertTrue(eventHandler.event instanceof Event1);
@@ -130,7 +132,7 @@ public abstract class EventBusTest {
     }
 
     public static abstract class AbstractTestEventHandler {
-        protected Event event;
+        protected volatile Event event;
         protected int called;
     }
 
@@ -0,0 +1,220 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.event.tck;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import javax.application.event.EventBus;
+import javax.application.event.EventFilter;
+import javax.application.event.EventHandler;
+import javax.application.event.EventMetadata;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Verifies that implementations of {@code EventBus} do not instantiate event filters on every dispatch and that
+ * filters are evaluated exactly once per published event.
+ * <p>
+ * {@code CountingEventFilter} keeps track of constructor calls and {@code apply} invocations. The number of
+ * distinct {@code EventMetadata} instances created for a single event delivered to several filtered handlers and the
+ * cost of filtered versus unfiltered dispatch are published as report entries.
+ *
+ * @author Andres Almiray
+ */
+public abstract class EventFilterCostTest {
+    protected abstract EventBus resolveEventBus();
+
+    protected int publishCount() {
+        return 1_000_000;
+    }
+
+    @BeforeEach
+    public void resetCounters() {
+        CountingEventFilter.reset();
+    }
+
+    @Test
+    public void filter_is_instantiated_once_per_subscription(TestReporter reporter) {
+        // given:
+        EventBus eventBus = resolveEventBus();
+        FilteredEventHandler eventHandler = new FilteredEventHandler();
+        eventBus.subscribe(eventHandler);
+        int count = publishCount();
+
+        // when:
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            eventBus.publishEvent(new FilteredEvent(i % 2 == 0));
+        }
+        long elapsed = System.nanoTime() - start;
+        eventBus.unsubscribe(eventHandler);
+
+        reporter.publishEntry("filter.constructions.count", String.valueOf(CountingEventFilter.CONSTRUCTIONS.get()));
+        reporter.publishEntry("filter.applications.count", String.valueOf(CountingEventFilter.APPLICATIONS.get()));
+        reporter.publishEntry("publish.filtered.nanos", String.valueOf(elapsed / count));
+
+        // then:
+        assertAll(
+            () -> assertThat("Filter instances", CountingEventFilter.CONSTRUCTIONS.get(), lessThanOrEqualTo(1L)),
+            () -> assertThat("Filter evaluations", CountingEventFilter.APPLICATIONS.get(), equalTo((long) count)),
+            () -> assertThat("Accepted events", eventHandler.called, equalTo((count + 1) / 2))
+        );
+    }
+
+    @Test
+    public void filter_instances_do_not_grow_with_dispatches_across_subscriptions(TestReporter reporter) {
+        // given:
+        EventBus eventBus = resolveEventBus();
+        List<FilteredEventHandler> eventHandlers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            FilteredEventHandler eventHandler = new FilteredEventHandler();
+            eventHandlers.add(eventHandler);
+            eventBus.subscribe(eventHandler);
+        }
+        int count = publishCount() / eventHandlers.size();
+        FilteredEvent event = new FilteredEvent(true);
+        CountingEventFilter.trackMetadata(true);
+
+        // when:
+        long metadataInstances = 0;
+        for (int i = 0; i < count; i++) {
+            eventBus.publishEvent(event);
+            metadataInstances += CountingEventFilter.drainMetadataInstances();
+        }
+        CountingEventFilter.trackMetadata(false);
+        eventHandlers.forEach(eventBus::unsubscribe);
+
+        // Equals 1 when every filter of a publication sees the same metadata, and the number of handlers when each
+        // filter evaluation creates its own.
+        reporter.publishEntry("metadata.instances_per_publish.ratio",
+            String.format(Locale.ROOT, "%.2f", (double) metadataInstances / count));
+
+        // then:
+        assertAll(
+            () -> assertThat("Filter instances", CountingEventFilter.CONSTRUCTIONS.get(),
+                lessThanOrEqualTo((long) eventHandlers.size())),
+            () -> assertThat("Filter evaluations", CountingEventFilter.APPLICATIONS.get(),
+                equalTo((long) count * eventHandlers.size())),
+            () -> assertThat("Handler invocations", eventHandlers.stream().mapToInt(h -> h.called).sum(),
+                equalTo(count * eventHandlers.size()))
+        );
+    }
+
+    @Test
+    public void unfiltered_dispatch_cost(TestReporter reporter) {
+        // given:
+        EventBus eventBus = resolveEventBus();
+        UnfilteredEventHandler eventHandler = new UnfilteredEventHandler();
+        eventBus.subscribe(eventHandler);
+        int count = publishCount();
+
+        // when:
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            eventBus.publishEvent(new FilteredEvent(i % 2 == 0));
+        }
+        long elapsed = System.nanoTime() - start;
+        eventBus.unsubscribe(eventHandler);
+
+        reporter.publishEntry("publish.unfiltered.nanos", String.valueOf(elapsed / count));
+
+        // then:
+        assertThat(eventHandler.called, equalTo(count));
+    }
+
+    public static class FilteredEvent implements EventBusTest.Event {
+        private final boolean accepted;
+
+        public FilteredEvent(boolean accepted) {
+            this.accepted = accepted;
+        }
+
+        public boolean isAccepted() {
+            return accepted;
+        }
+    }
+
+    public static class CountingEventFilter implements EventFilter<FilteredEvent> {
+        private static final AtomicLong CONSTRUCTIONS = new AtomicLong();
+        private static final AtomicLong APPLICATIONS = new AtomicLong();
+        private static final Set<Object> METADATA_INSTANCES = Collections.synchronizedSet(
+            Collections.newSetFromMap(new IdentityHashMap<>()));
+        private static volatile boolean trackMetadata;
+
+        public CountingEventFilter() {
+            CONSTRUCTIONS.incrementAndGet();
+        }
+
+        @Override
+        public Boolean apply(EventMetadata<FilteredEvent> metadata) {
+            APPLICATIONS.incrementAndGet();
+            if (trackMetadata) {
+                METADATA_INSTANCES.add(metadata);
+            }
+            return metadata.getEvent().isAccepted();
+        }
+
+        private static void reset() {
+            CONSTRUCTIONS.set(0);
+            APPLICATIONS.set(0);
+            METADATA_INSTANCES.clear();
+            trackMetadata = false;
+        }
+
+        private static void trackMetadata(boolean enabled) {
+            trackMetadata = enabled;
+        }
+
+        /**
+         * Returns the number of distinct metadata instances seen since the last call, then forgets them.
+         */
+        private static int drainMetadataInstances() {
+            synchronized (METADATA_INSTANCES) {
+                int size = METADATA_INSTANCES.size();
+                METADATA_INSTANCES.clear();
+                return size;
+            }
+        }
+    }
+
+    public static class FilteredEventHandler extends EventBusTest.AbstractTestEventHandler {
+        @EventHandler(filters = {CountingEventFilter.class})
+        public void handleFilteredEvent(FilteredEvent event) {
+            this.called++;
+        }
+    }
+
+    public static class UnfilteredEventHandler extends EventBusTest.AbstractTestEventHandler {
+        @EventHandler
+        public void handleFilteredEvent(FilteredEvent event) {
+            this.called++;
+        }
+    }
+}
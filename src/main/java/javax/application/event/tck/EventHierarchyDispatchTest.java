@@ -0,0 +1,269 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.event.tck;
+
+import org.junit.jupiter.api.Test;
+
+import javax.application.event.EventBus;
+import javax.application.event.EventHandler;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+
+/**
+ * Verifies how implementations of {@code EventBus} dispatch events that belong to a type hierarchy.
+ * <p>
+ * A handler method receives every event that is an instance of its parameter type, be it a class or an interface,
+ * and is invoked exactly once per event. Handler methods inherited from a superclass of the subscriber are
+ * honored as well. The following event hierarchy is used
+ * <p>
+ * <pre>
+ * Level1Event implements EventBusTest.Event
+ * Level2Event extends Level1Event
+ * Level3Event extends Level2Event implements TaggedEvent
+ * Level4Event extends Level3Event
+ * Level5Event extends Level4Event
+ * Level6Event extends Level5Event
+ * </pre>
+ *
+ * @author Andres Almiray
+ */
+public abstract class EventHierarchyDispatchTest {
+    protected abstract EventBus resolveEventBus();
+
+    @Test
+    public void handler_for_superclass_receives_subclass_events() {
+        // given:
+        EventBus eventBus = resolveEventBus();
+        Level1EventHandler eventHandler = new Level1EventHandler();
+        eventBus.subscribe(eventHandler);
+
+        // when:
+        publishAllLevels(eventBus);
+
+        // then:
+        assertThat(eventHandler.invocations, contains(
+            "Level1Event:Level1Event",
+            "Level1Event:Level2Event",
+            "Level1Event:Level3Event",
+            "Level1Event:Level4Event",
+            "Level1Event:Level5Event",
+            "Level1Event:Level6Event"));
+    }
+
+    @Test
+    public void handler_for_interface_receives_implementing_events() {
+        // given:
+        EventBus eventBus = resolveEventBus();
+        TaggedEventHandler eventHandler = new TaggedEventHandler();
+        eventBus.subscribe(eventHandler);
+
+        // when:
+        publishAllLevels(eventBus);
+
+        // then:
+        assertThat(eventHandler.invocations, contains(
+            "TaggedEvent:Level3Event",
+            "TaggedEvent:Level4Event",
+            "TaggedEvent:Level5Event",
+            "TaggedEvent:Level6Event"));
+    }
+
+    @Test
+    public void handler_for_marker_interface_receives_every_event() {
+        // given:
+        EventBus eventBus = resolveEventBus();
+        MarkerEventHandler eventHandler = new MarkerEventHandler();
+        eventBus.subscribe(eventHandler);
+
+        // when:
+        eventBus.publishEvent(new EventBusTest.Event1());
+        eventBus.publishEvent(new Level6Event());
+
+        // then:
+        assertThat(eventHandler.invocations, contains(
+            "Event:Event1",
+            "Event:Level6Event"));
+    }
+
+    @Test
+    public void handler_for_subclass_does_not_receive_superclass_events() {
+        // given:
+        EventBus eventBus = resolveEventBus();
+        Level6EventHandler eventHandler = new Level6EventHandler();
+        eventBus.subscribe(eventHandler);
+
+        // when:
+        eventBus.publishEvent(new Level1Event());
+        eventBus.publishEvent(new Level3Event());
+        eventBus.publishEvent(new Level5Event());
+
+        // then:
+        assertThat(eventHandler.invocations, empty());
+    }
+
+    @Test
+    public void every_matching_handler_method_is_invoked_once() {
+        // given:
+        EventBus eventBus = resolveEventBus();
+        MultiLevelEventHandler eventHandler = new MultiLevelEventHandler();
+        eventBus.subscribe(eventHandler);
+
+        // when:
+        eventBus.publishEvent(new Level6Event());
+
+        // then:
+        assertThat(eventHandler.invocations, containsInAnyOrder(
+            "Event:Level6Event",
+            "Level1Event:Level6Event",
+            "TaggedEvent:Level6Event",
+            "Level6Event:Level6Event"));
+    }
+
+    @Test
+    public void handler_methods_inherited_from_superclass_are_invoked() {
+        // given:
+        EventBus eventBus = resolveEventBus();
+        InheritingEventHandler eventHandler = new InheritingEventHandler();
+        eventBus.subscribe(eventHandler);
+
+        // when:
+        eventBus.publishEvent(new Level2Event());
+        eventBus.publishEvent(new Level6Event());
+
+        // then:
+        assertThat(eventHandler.invocations, containsInAnyOrder(
+            "Level1Event:Level2Event",
+            "Level1Event:Level6Event",
+            "Level6Event:Level6Event"));
+    }
+
+    @Test
+    public void unsubscribe_removes_handlers_for_every_level() {
+        // given:
+        EventBus eventBus = resolveEventBus();
+        MultiLevelEventHandler eventHandler = new MultiLevelEventHandler();
+        eventBus.subscribe(eventHandler);
+        eventBus.unsubscribe(eventHandler);
+
+        // when:
+        publishAllLevels(eventBus);
+
+        // then:
+        assertThat(eventHandler.invocations, empty());
+    }
+
+    private static void publishAllLevels(EventBus eventBus) {
+        eventBus.publishEvent(new Level1Event());
+        eventBus.publishEvent(new Level2Event());
+        eventBus.publishEvent(new Level3Event());
+        eventBus.publishEvent(new Level4Event());
+        eventBus.publishEvent(new Level5Event());
+        eventBus.publishEvent(new Level6Event());
+    }
+
+    public interface TaggedEvent extends EventBusTest.Event {
+    }
+
+    public static class Level1Event implements EventBusTest.Event {
+    }
+
+    public static class Level2Event extends Level1Event {
+    }
+
+    public static class Level3Event extends Level2Event implements TaggedEvent {
+    }
+
+    public static class Level4Event extends Level3Event {
+    }
+
+    public static class Level5Event extends Level4Event {
+    }
+
+    public static class Level6Event extends Level5Event {
+    }
+
+    public static abstract class RecordingEventHandler {
+        protected final List<String> invocations = new ArrayList<>();
+
+        protected void record(String handledType, Object event) {
+            invocations.add(handledType + ":" + event.getClass().getSimpleName());
+        }
+    }
+
+    public static class MarkerEventHandler extends RecordingEventHandler {
+        @EventHandler
+        public void handleEvent(EventBusTest.Event event) {
+            record("Event", event);
+        }
+    }
+
+    public static class TaggedEventHandler extends RecordingEventHandler {
+        @EventHandler
+        public void handleTaggedEvent(TaggedEvent event) {
+            record("TaggedEvent", event);
+        }
+    }
+
+    public static class Level1EventHandler extends RecordingEventHandler {
+        @EventHandler
+        public void handleLevel1Event(Level1Event event) {
+            record("Level1Event", event);
+        }
+    }
+
+    public static class Level6EventHandler extends RecordingEventHandler {
+        @EventHandler
+        public void handleLevel6Event(Level6Event event) {
+            record("Level6Event", event);
+        }
+    }
+
+    public static class InheritingEventHandler extends Level1EventHandler {
+        @EventHandler
+        public void handleLevel6Event(Level6Event event) {
+            record("Level6Event", event);
+        }
+    }
+
+    public static class MultiLevelEventHandler extends RecordingEventHandler {
+        @EventHandler
+        public void handleEvent(EventBusTest.Event event) {
+            record("Event", event);
+        }
+
+        @EventHandler
+        public void handleLevel1Event(Level1Event event) {
+            record("Level1Event", event);
+        }
+
+        @EventHandler
+        public void handleTaggedEvent(TaggedEvent event) {
+            record("TaggedEvent", event);
+        }
+
+        @EventHandler
+        public void handleLevel6Event(Level6Event event) {
+            record("Level6Event", event);
+        }
+    }
+}
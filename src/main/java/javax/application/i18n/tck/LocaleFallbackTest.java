@@ -0,0 +1,211 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.i18n.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.Executable;
+
+import javax.application.i18n.MessageSource;
+import javax.application.tck.EnglishLocaleExtension;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Verifies how implementations of {@code MessageSource} fall back from a specific locale to more general ones, and
+ * compares the cost of messages found in the most specific bundle with that of messages found in the root bundle.
+ * <p>
+ * Implementations must read messages from the layered bundles with base name {@value #BASENAME}, which are
+ * provided as properties files by the TCK. There is a root bundle plus 40 locale specific bundles covering ten
+ * languages, two countries per language, and the variant {@code tck} for the second country of every language,
+ * for example {@code de}, {@code de_DE}, {@code de_CH}, and {@code de_CH_tck}. Every bundle resolves the following
+ * keys, from the most specific to the least specific, to its own name: {@code key.variant}, {@code key.country},
+ * {@code key.language}, and {@code key.root}. A variant bundle defines {@code key.variant} only, a country bundle
+ * also defines {@code key.country}, and so on, the root bundle defines all four keys.
+ * <p>
+ * Implementations that do not cache the resolution of a fallback chain pay for it on every lookup. Leaf and root
+ * lookups are measured in alternating rounds, and the best round of root lookups must not take longer than
+ * {@link #maximumFallbackRatio()} times the best round of leaf lookups. A chain has four levels, thus walking it
+ * on every lookup costs up to four times as much as a leaf lookup.
+ *
+ * @author Andres Almiray
+ */
+@ExtendWith(EnglishLocaleExtension.class)
+public abstract class LocaleFallbackTest {
+    public static final String BASENAME = "javax.application.i18n.tck.LocaleFallback";
+    public static final String KEY_VARIANT = "key.variant";
+    public static final String KEY_COUNTRY = "key.country";
+    public static final String KEY_LANGUAGE = "key.language";
+    public static final String KEY_ROOT = "key.root";
+
+    /**
+     * Locales for which a bundle exists, not including the root bundle.
+     */
+    public static final Set<Locale> BUNDLE_LOCALES;
+
+    /**
+     * The most specific locales, one per language, with a bundle at each level.
+     */
+    public static final List<Locale> LEAF_LOCALES;
+
+    private static final List<String> KEYS = Arrays.asList(KEY_ROOT, KEY_LANGUAGE, KEY_COUNTRY, KEY_VARIANT);
+
+    static {
+        String[][] languages = {
+            {"de", "DE", "CH"},
+            {"fr", "FR", "CA"},
+            {"es", "ES", "MX"},
+            {"it", "IT", "CH"},
+            {"pt", "PT", "BR"},
+            {"nl", "NL", "BE"},
+            {"sv", "SE", "FI"},
+            {"zh", "CN", "TW"},
+            {"ar", "EG", "SA"},
+            {"ru", "RU", "UA"}
+        };
+        Set<Locale> bundleLocales = new LinkedHashSet<>();
+        List<Locale> leafLocales = new ArrayList<>();
+        for (String[] language : languages) {
+            Locale leaf = new Locale(language[0], language[2], "tck");
+            bundleLocales.add(new Locale(language[0]));
+            bundleLocales.add(new Locale(language[0], language[1]));
+            bundleLocales.add(new Locale(language[0], language[2]));
+            bundleLocales.add(leaf);
+            leafLocales.add(leaf);
+        }
+        BUNDLE_LOCALES = Collections.unmodifiableSet(bundleLocales);
+        LEAF_LOCALES = Collections.unmodifiableList(leafLocales);
+    }
+
+    /**
+     * Returns a {@code MessageSource} that reads messages from the bundles with the given base name.
+     */
+    protected abstract MessageSource resolveMessageSource(String basename);
+
+    /**
+     * Locales that have no bundle of their own, looked up in addition to {@link #BUNDLE_LOCALES}.
+     */
+    protected List<Locale> missingLocales() {
+        return Arrays.asList(
+            new Locale("de", "AT"),
+            new Locale("de", "DE", "tck"),
+            new Locale("fr", "BE", "tck"),
+            new Locale("pt", "AO"),
+            new Locale("xx"),
+            new Locale("xx", "YY", "tck"));
+    }
+
+    protected int lookupsPerMeasurement() {
+        return 100_000;
+    }
+
+    protected int measurementRounds() {
+        return 5;
+    }
+
+    protected double maximumFallbackRatio() {
+        return 2.0d;
+    }
+
+    @Test
+    public void messages_fall_back_from_specific_to_general_locales() {
+        // given:
+        MessageSource messageSource = resolveMessageSource(BASENAME);
+        List<Locale> locales = new ArrayList<>(BUNDLE_LOCALES);
+        locales.addAll(missingLocales());
+        List<Executable> assertions = new ArrayList<>();
+
+        for (Locale locale : locales) {
+            for (String key : KEYS) {
+                String expected = expectedMessage(key, locale);
+
+                // expect:
+                assertions.add(() -> assertThat(key + " for " + locale, messageSource.getMessage(key, locale), equalTo(expected)));
+            }
+        }
+
+        assertAll(assertions);
+    }
+
+    @Test
+    public void root_lookups_compared_with_leaf_lookups(TestReporter reporter) throws Exception {
+        // given:
+        MessageSource messageSource = resolveMessageSource(BASENAME);
+        int lookups = lookupsPerMeasurement();
+        Locale[] locales = LEAF_LOCALES.toArray(new Locale[0]);
+
+        long leafNanos = Long.MAX_VALUE;
+        long rootNanos = Long.MAX_VALUE;
+
+        // when:
+        measure(messageSource, KEY_VARIANT, locales, lookups);
+        measure(messageSource, KEY_ROOT, locales, lookups);
+        for (int round = 0; round < measurementRounds(); round++) {
+            leafNanos = Math.min(leafNanos, measure(messageSource, KEY_VARIANT, locales, lookups));
+            rootNanos = Math.min(rootNanos, measure(messageSource, KEY_ROOT, locales, lookups));
+        }
+        double ratio = (double) rootNanos / Math.max(1L, leafNanos);
+
+        reporter.publishEntry("fallback.leaf.nanos", String.valueOf(leafNanos / lookups));
+        reporter.publishEntry("fallback.root.nanos", String.valueOf(rootNanos / lookups));
+        reporter.publishEntry("fallback.root_to_leaf.ratio", String.format(Locale.ROOT, "%.2f", ratio));
+
+        // then:
+        assertThat("Root to leaf lookup cost ratio", ratio, lessThanOrEqualTo(maximumFallbackRatio()));
+    }
+
+    private static long measure(MessageSource messageSource, String key, Locale[] locales, int lookups) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            if (messageSource.getMessage(key, locales[i % locales.length]) == null) {
+                throw new IllegalStateException(key + " resolved to null");
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Computes the message expected for the given key and locale, which is the name of the most specific bundle in
+     * the fallback chain of the locale that defines the key.
+     */
+    public static String expectedMessage(String key, Locale locale) {
+        int keyLevel = KEYS.indexOf(key);
+        List<Locale> chain = Arrays.asList(
+            new Locale(locale.getLanguage(), locale.getCountry(), locale.getVariant()),
+            new Locale(locale.getLanguage(), locale.getCountry()),
+            new Locale(locale.getLanguage()));
+        for (Locale candidate : chain) {
+            int candidateLevel = candidate.getVariant().isEmpty() ? candidate.getCountry().isEmpty() ? 1 : 2 : 3;
+            if (candidateLevel <= keyLevel && BUNDLE_LOCALES.contains(candidate)) {
+                return candidate.toString();
+            }
+        }
+        return "root";
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.i18n.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import javax.application.i18n.MessageSource;
+import javax.application.tck.AllocationBudgetTest;
+import javax.application.tck.EnglishLocaleExtension;
+
+import static javax.application.tck.LookupFixture.KEY_PROVERB;
+import static javax.application.tck.LookupFixture.TWO_ARGS;
+
+/**
+ * Verifies that {@code MessageSource.getMessage(String)} and {@code MessageSource.getMessage(String, Object[])}
+ * stay within the allocation budgets supplied by the implementation. The key {@code key.proverb} must resolve to
+ * {@code An {0} a day keeps the {1} away}.
+ *
+ * @author Andres Almiray
+ */
+@ExtendWith(EnglishLocaleExtension.class)
+public abstract class MessageSourceAllocationTest extends AllocationBudgetTest {
+    protected abstract MessageSource resolveMessageSource();
+
+    /**
+     * Maximum bytes {@code getMessage} may allocate per call, without arguments.
+     */
+    protected abstract long getMessageBytesBudget();
+
+    /**
+     * Maximum bytes {@code getMessage} may allocate per call, formatting two arguments.
+     */
+    protected abstract long getMessageWithArgsBytesBudget();
+
+    @Test
+    public void getMessage_allocation_budget(TestReporter reporter) throws Exception {
+        // given:
+        MessageSource messageSource = resolveMessageSource();
+
+        // expect:
+        assertBytesPerOperation(reporter, "message.get", getMessageBytesBudget(), () -> messageSource.getMessage(KEY_PROVERB));
+    }
+
+    @Test
+    public void getMessage_withArguments_allocation_budget(TestReporter reporter) throws Exception {
+        // given:
+        MessageSource messageSource = resolveMessageSource();
+
+        // expect:
+        assertBytesPerOperation(reporter, "message.get_with_args", getMessageWithArgsBytesBudget(), () -> messageSource.getMessage(KEY_PROVERB, TWO_ARGS));
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.i18n.tck;
+
+import org.junit.jupiter.api.BeforeEach;
+
+import javax.application.i18n.MessageSource;
+import javax.application.tck.FormattedLookupTest;
+
+/**
+ * Runs {@code FormattedLookupTest} against {@code MessageSource.getMessage(String)} and
+ * {@code MessageSource.getMessage(String, Object[])}.
+ *
+ * @author Andres Almiray
+ */
+public abstract class MessageSourceFormattingTest extends FormattedLookupTest {
+    private MessageSource messageSource;
+
+    protected abstract MessageSource resolveMessageSource();
+
+    @BeforeEach
+    public void resolveMessageSourceUnderTest() {
+        messageSource = resolveMessageSource();
+    }
+
+    @Override
+    protected Object lookup(String key) throws Exception {
+        return messageSource.getMessage(key);
+    }
+
+    @Override
+    protected Object lookup(String key, Object[] args) throws Exception {
+        return messageSource.getMessage(key, args);
+    }
+}
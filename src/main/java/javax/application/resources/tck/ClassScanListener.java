@@ -0,0 +1,32 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.resources.tck;
+
+/**
+ * Instrumentation hook for {@code ResourceInjector} implementations. Implementations under test invoke
+ * {@link #classScanned(Class)} every time they reflectively scan a class for {@code @InjectedResource} members,
+ * allowing suites to verify that such metadata is computed once per class rather than once per injection.
+ *
+ * @author Andres Almiray
+ */
+@FunctionalInterface
+public interface ClassScanListener {
+    ClassScanListener NONE = type -> {};
+
+    void classScanned(Class<?> type);
+}
@@ -0,0 +1,192 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.resources.tck;
+
+import javax.application.resources.NoSuchResourceException;
+import javax.application.resources.ResourceResolver;
+import java.text.MessageFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@code ResourceResolver} stand-in backed by a map of keys to string values, which counts every lookup.
+ * <p>
+ * Values are formatted with {@code MessageFormat} when arguments are given. Converted lookups support
+ * {@code String}, {@code Object}, primitive wrappers, and their primitive types. Locales are ignored. Every call to
+ * any of the {@code resolveResource} or {@code resolveResourceConverted} methods counts as one lookup.
+ *
+ * @author Andres Almiray
+ */
+public class CountingResourceResolver implements ResourceResolver {
+    private final Map<String, String> resources;
+    private final LongAdder lookups = new LongAdder();
+    private final Map<String, LongAdder> lookupsByKey = new ConcurrentHashMap<>();
+
+    public CountingResourceResolver(Map<String, String> resources) {
+        this.resources = new LinkedHashMap<>(resources);
+    }
+
+    public long getLookupCount() {
+        return lookups.sum();
+    }
+
+    public long getLookupCount(String key) {
+        LongAdder counter = lookupsByKey.get(key);
+        return counter != null ? counter.sum() : 0L;
+    }
+
+    public void resetLookupCounts() {
+        lookups.reset();
+        lookupsByKey.clear();
+    }
+
+    @Override
+    public Object resolveResource(String key) throws NoSuchResourceException {
+        return lookup(key, null);
+    }
+
+    @Override
+    public Object resolveResource(String key, Locale locale) throws NoSuchResourceException {
+        return lookup(key, null);
+    }
+
+    @Override
+    public Object resolveResource(String key, Object[] args) throws NoSuchResourceException {
+        return lookup(key, args);
+    }
+
+    @Override
+    public Object resolveResource(String key, Object[] args, Locale locale) throws NoSuchResourceException {
+        return lookup(key, args);
+    }
+
+    @Override
+    public Object resolveResource(String key, Object defaultValue) {
+        return lookupOrDefault(key, null, defaultValue);
+    }
+
+    @Override
+    public Object resolveResource(String key, Locale locale, Object defaultValue) {
+        return lookupOrDefault(key, null, defaultValue);
+    }
+
+    @Override
+    public Object resolveResource(String key, Object[] args, Object defaultValue) {
+        return lookupOrDefault(key, args, defaultValue);
+    }
+
+    @Override
+    public Object resolveResource(String key, Object[] args, Locale locale, Object defaultValue) {
+        return lookupOrDefault(key, args, defaultValue);
+    }
+
+    @Override
+    public <T> T resolveResourceConverted(String key, Class<T> type) throws NoSuchResourceException {
+        return convert(lookup(key, null), type);
+    }
+
+    @Override
+    public <T> T resolveResourceConverted(String key, Locale locale, Class<T> type) throws NoSuchResourceException {
+        return convert(lookup(key, null), type);
+    }
+
+    @Override
+    public <T> T resolveResourceConverted(String key, Object[] args, Class<T> type) throws NoSuchResourceException {
+        return convert(lookup(key, args), type);
+    }
+
+    @Override
+    public <T> T resolveResourceConverted(String key, Object[] args, Locale locale, Class<T> type) throws NoSuchResourceException {
+        return convert(lookup(key, args), type);
+    }
+
+    @Override
+    public <T> T resolveResourceConverted(String key, T defaultValue, Class<T> type) {
+        return convertOrDefault(key, null, defaultValue, type);
+    }
+
+    @Override
+    public <T> T resolveResourceConverted(String key, Locale locale, T defaultValue, Class<T> type) {
+        return convertOrDefault(key, null, defaultValue, type);
+    }
+
+    @Override
+    public <T> T resolveResourceConverted(String key, Object[] args, T defaultValue, Class<T> type) {
+        return convertOrDefault(key, args, defaultValue, type);
+    }
+
+    @Override
+    public <T> T resolveResourceConverted(String key, Object[] args, Locale locale, T defaultValue, Class<T> type) {
+        return convertOrDefault(key, args, defaultValue, type);
+    }
+
+    private String lookup(String key, Object[] args) throws NoSuchResourceException {
+        String value = find(key, args);
+        if (value == null) {
+            throw new NoSuchResourceException(key);
+        }
+        return value;
+    }
+
+    private Object lookupOrDefault(String key, Object[] args, Object defaultValue) {
+        String value = find(key, args);
+        return value != null ? value : defaultValue;
+    }
+
+    private <T> T convertOrDefault(String key, Object[] args, T defaultValue, Class<T> type) {
+        String value = find(key, args);
+        return value != null ? convert(value, type) : defaultValue;
+    }
+
+    private String find(String key, Object[] args) {
+        lookups.increment();
+        lookupsByKey.computeIfAbsent(key, k -> new LongAdder()).increment();
+        String value = resources.get(key);
+        if (value != null && args != null && args.length > 0) {
+            return MessageFormat.format(value, args);
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T convert(String value, Class<T> type) {
+        if (type == String.class || type == Object.class) {
+            return (T) value;
+        } else if (type == Integer.class || type == int.class) {
+            return (T) Integer.valueOf(value);
+        } else if (type == Long.class || type == long.class) {
+            return (T) Long.valueOf(value);
+        } else if (type == Short.class || type == short.class) {
+            return (T) Short.valueOf(value);
+        } else if (type == Byte.class || type == byte.class) {
+            return (T) Byte.valueOf(value);
+        } else if (type == Double.class || type == double.class) {
+            return (T) Double.valueOf(value);
+        } else if (type == Float.class || type == float.class) {
+            return (T) Float.valueOf(value);
+        } else if (type == Boolean.class || type == boolean.class) {
+            return (T) Boolean.valueOf(value);
+        } else if (type == Character.class || type == char.class) {
+            return (T) Character.valueOf(value.charAt(0));
+        }
+        throw new IllegalArgumentException("Cannot convert '" + value + "' to " + type.getName());
+    }
+}
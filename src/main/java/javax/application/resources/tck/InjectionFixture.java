@@ -0,0 +1,317 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.resources.tck;
+
+import javax.application.resources.InjectedResource;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A generated bean class hierarchy for exercising {@code ResourceInjector} implementations at scale.
+ * <p>
+ * {@link #generate(int, int)} compiles {@code depth} classes in memory, each extending the previous one and
+ * declaring {@code fieldsPerLevel} injection points that cycle through four kinds:
+ * <ol>
+ * <li>a private field whose key is derived from the class and field names,</li>
+ * <li>a setter whose key is derived from the class and property names,</li>
+ * <li>a private field with an explicit key and {@code args},</li>
+ * <li>a private field with an explicit key that cannot be resolved and a {@code defaultValue}.</li>
+ * </ol>
+ * Compiling requires a JDK. Fixtures are generated once per combination of depth and fields per level.
+ *
+ * @author Andres Almiray
+ */
+public final class InjectionFixture {
+    private static final String PACKAGE_NAME = "javax.application.resources.tck.generated";
+    private static final Map<String, InjectionFixture> FIXTURES = new ConcurrentHashMap<>();
+
+    private final int depth;
+    private final int fieldsPerLevel;
+    private final Class<?> beanClass;
+    private final Map<String, String> resources;
+    private final Map<String, Map<String, String>> expectedValues;
+
+    private InjectionFixture(int depth, int fieldsPerLevel, Class<?> beanClass, Map<String, String> resources, Map<String, Map<String, String>> expectedValues) {
+        this.depth = depth;
+        this.fieldsPerLevel = fieldsPerLevel;
+        this.beanClass = beanClass;
+        this.resources = Collections.unmodifiableMap(resources);
+        this.expectedValues = expectedValues;
+    }
+
+    public static InjectionFixture generate(int depth, int fieldsPerLevel) {
+        if (depth < 1 || fieldsPerLevel < 1) {
+            throw new IllegalArgumentException("depth and fieldsPerLevel must be positive");
+        }
+        return FIXTURES.computeIfAbsent(depth + "x" + fieldsPerLevel, k -> compile(depth, fieldsPerLevel));
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int getFieldsPerLevel() {
+        return fieldsPerLevel;
+    }
+
+    public int getInjectionPointCount() {
+        return depth * fieldsPerLevel;
+    }
+
+    /**
+     * Returns the most derived class of the hierarchy.
+     */
+    public Class<?> getBeanClass() {
+        return beanClass;
+    }
+
+    /**
+     * Returns the key/value pairs that must be resolvable for beans of this fixture.
+     */
+    public Map<String, String> getResources() {
+        return resources;
+    }
+
+    public Object newInstance() {
+        try {
+            return beanClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Compares every injection point of the given bean with its expected value.
+     *
+     * @return a description of every mismatch, empty if all injection points hold their expected values.
+     */
+    public List<String> verify(Object bean) {
+        List<String> mismatches = new ArrayList<>();
+        for (Class<?> type = bean.getClass(); expectedValues.containsKey(type.getName()); type = type.getSuperclass()) {
+            for (Map.Entry<String, String> expected : expectedValues.get(type.getName()).entrySet()) {
+                Object actual = readField(type, expected.getKey(), bean);
+                if (!Objects.equals(expected.getValue(), actual)) {
+                    mismatches.add(type.getSimpleName() + "." + expected.getKey() + " expected <" + expected.getValue() + "> but was <" + actual + ">");
+                }
+            }
+        }
+        return mismatches;
+    }
+
+    private static Object readField(Class<?> type, String name, Object bean) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return field.get(bean);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static InjectionFixture compile(int depth, int fieldsPerLevel) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("Generating injection fixtures requires a JDK");
+        }
+
+        String prefix = "Fixture" + depth + "x" + fieldsPerLevel + "Level";
+        Map<String, String> resources = new LinkedHashMap<>();
+        Map<String, Map<String, String>> expectedValues = new LinkedHashMap<>();
+        List<JavaFileObject> sources = new ArrayList<>();
+
+        for (int level = 1; level <= depth; level++) {
+            String simpleName = prefix + level;
+            String className = PACKAGE_NAME + "." + simpleName;
+            Map<String, String> expected = new LinkedHashMap<>();
+            String source = levelSource(simpleName, level > 1 ? prefix + (level - 1) : null, className, level, fieldsPerLevel, resources, expected);
+            expectedValues.put(className, expected);
+            sources.add(new SourceFile(className, source));
+        }
+
+        try {
+            List<String> options = new ArrayList<>();
+            options.add("-nowarn");
+            options.add("-proc:none");
+            options.add("-classpath");
+            options.add(new File(InjectedResource.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath());
+
+            StringWriter diagnostics = new StringWriter();
+            Map<String, ByteArrayOutputStream> classFiles = new LinkedHashMap<>();
+            try (JavaFileManager fileManager = new ClassFileManager(compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8), classFiles)) {
+                if (!compiler.getTask(diagnostics, fileManager, null, options, null, sources).call()) {
+                    throw new IllegalStateException("Could not compile injection fixtures\n" + diagnostics);
+                }
+            }
+
+            ClassLoader classLoader = new FixtureClassLoader(classFiles, InjectionFixture.class.getClassLoader());
+            Class<?> beanClass = classLoader.loadClass(PACKAGE_NAME + "." + prefix + depth);
+            return new InjectionFixture(depth, fieldsPerLevel, beanClass, resources, expectedValues);
+        } catch (IOException | ReflectiveOperationException | URISyntaxException e) {
+            throw new IllegalStateException("Could not generate injection fixtures", e);
+        }
+    }
+
+    private static String levelSource(String simpleName, String superName, String className, int level, int fields, Map<String, String> resources, Map<String, String> expected) {
+        StringBuilder source = new StringBuilder()
+            .append("package ").append(PACKAGE_NAME).append(";\n\n")
+            .append("import javax.application.resources.InjectedResource;\n\n")
+            .append("public class ").append(simpleName);
+        if (superName != null) {
+            source.append(" extends ").append(superName);
+        }
+        source.append(" {\n");
+
+        for (int i = 0; i < fields; i++) {
+            switch (i % 4) {
+                case 0: {
+                    String name = "field" + i;
+                    String value = simpleName + "." + name;
+                    resources.put(className + "." + name, value);
+                    expected.put(name, value);
+                    source.append("    @InjectedResource\n")
+                        .append("    private String ").append(name).append(";\n\n");
+                    break;
+                }
+                case 1: {
+                    // setters are public, thus their names must be unique across levels
+                    String name = "l" + level + "setter" + i;
+                    String value = simpleName + "." + name;
+                    resources.put(className + "." + name, value);
+                    expected.put(name, value);
+                    source.append("    private String ").append(name).append(";\n\n")
+                        .append("    @InjectedResource\n")
+                        .append("    public void setL").append(level).append("setter").append(i).append("(String value) {\n")
+                        .append("        this.").append(name).append(" = value;\n")
+                        .append("    }\n\n");
+                    break;
+                }
+                case 2: {
+                    String name = "args" + i;
+                    String key = "generated." + simpleName + "." + name;
+                    resources.put(key, simpleName + "." + name + " {0} {1}");
+                    expected.put(name, simpleName + "." + name + " x y");
+                    source.append("    @InjectedResource(value = \"").append(key).append("\", args = {\"x\", \"y\"})\n")
+                        .append("    private String ").append(name).append(";\n\n");
+                    break;
+                }
+                default: {
+                    String name = "default" + i;
+                    String value = "DEFAULT." + simpleName + "." + name;
+                    expected.put(name, value);
+                    source.append("    @InjectedResource(value = \"generated.missing.").append(simpleName).append('.').append(name)
+                        .append("\", defaultValue = \"").append(value).append("\")\n")
+                        .append("    private String ").append(name).append(";\n\n");
+                    break;
+                }
+            }
+        }
+
+        return source.append("}\n").toString();
+    }
+
+    private static final class SourceFile extends SimpleJavaFileObject {
+        private final String source;
+
+        private SourceFile(String className, String source) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+
+    /**
+     * Keeps compiled classes in memory, thus fixtures leave no files behind.
+     */
+    private static final class ClassFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+        private final Map<String, ByteArrayOutputStream> classFiles;
+
+        private ClassFileManager(JavaFileManager fileManager, Map<String, ByteArrayOutputStream> classFiles) {
+            super(fileManager);
+            this.classFiles = classFiles;
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+            return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    ByteArrayOutputStream classFile = new ByteArrayOutputStream();
+                    classFiles.put(className, classFile);
+                    return classFile;
+                }
+            };
+        }
+    }
+
+    private static final class FixtureClassLoader extends ClassLoader {
+        private final Map<String, ByteArrayOutputStream> classFiles;
+
+        private FixtureClassLoader(Map<String, ByteArrayOutputStream> classFiles, ClassLoader parent) {
+            super(parent);
+            this.classFiles = classFiles;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            ByteArrayOutputStream classFile = classFiles.get(name);
+            if (classFile == null) {
+                throw new ClassNotFoundException(name);
+            }
+            byte[] bytecode = classFile.toByteArray();
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+
+        @Override
+        public InputStream getResourceAsStream(String name) {
+            if (name.endsWith(".class")) {
+                ByteArrayOutputStream classFile = classFiles.get(name.substring(0, name.length() - 6).replace('/', '.'));
+                if (classFile != null) {
+                    return new ByteArrayInputStream(classFile.toByteArray());
+                }
+            }
+            return super.getResourceAsStream(name);
+        }
+    }
+}
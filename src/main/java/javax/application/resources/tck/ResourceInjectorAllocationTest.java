@@ -0,0 +1,55 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.resources.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import javax.application.resources.ResourceInjector;
+import javax.application.resources.tck.ResourceInjectorTest.Bean;
+import javax.application.tck.AllocationBudgetTest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Verifies that {@code ResourceInjector.injectResources} stays within the allocation budget supplied by the
+ * implementation. Resources are injected into the same {@code ResourceInjectorTest.Bean} over and over, thus the
+ * {@code ResourceInjector} must be able to resolve the same resources as in {@code ResourceInjectorTest}.
+ *
+ * @author Andres Almiray
+ */
+public abstract class ResourceInjectorAllocationTest extends AllocationBudgetTest {
+    protected abstract ResourceInjector resolveResourcesInjector();
+
+    /**
+     * Maximum bytes {@code injectResources} may allocate per call, once the class of the bean has been seen.
+     */
+    protected abstract long injectResourcesBytesBudget();
+
+    @Test
+    public void injectResources_allocation_budget(TestReporter reporter) throws Exception {
+        // given:
+        ResourceInjector resourceInjector = resolveResourcesInjector();
+        Bean bean = new Bean();
+
+        // expect:
+        assertBytesPerOperation(reporter, "inject.bean", injectResourcesBytesBudget(), () -> resourceInjector.injectResources(bean));
+        assertThat(bean.fieldWithKeyAndArgs(), equalTo("with_args 1 2"));
+    }
+}
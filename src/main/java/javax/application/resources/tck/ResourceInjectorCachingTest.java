@@ -0,0 +1,141 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.resources.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import javax.application.resources.ResourceInjector;
+import javax.application.resources.ResourceResolver;
+import javax.application.resources.tck.ResourceInjectorTest.Bean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Verifies that implementations of {@code ResourceInjector} compute the {@code @InjectedResource} metadata of a
+ * class once, no matter how many instances of that class receive resources.
+ * <p>
+ * Implementations are given a {@code CountingResourceResolver} to resolve resources from, and a
+ * {@code ClassScanListener} that must be notified every time a class is reflectively scanned for injection points.
+ * Many instances of {@code ResourceInjectorTest.Bean} are injected; every class must be scanned at most once, and
+ * every injection must perform the same number of lookups as the first one.
+ *
+ * @author Andres Almiray
+ */
+public abstract class ResourceInjectorCachingTest {
+    protected abstract ResourceInjector resolveResourceInjector(ResourceResolver resourceResolver, ClassScanListener classScanListener);
+
+    protected int instanceCount() {
+        return 1_000;
+    }
+
+    @Test
+    public void injection_metadata_is_computed_once_per_class(TestReporter reporter) {
+        // given:
+        Map<Class<?>, AtomicInteger> scans = new ConcurrentHashMap<>();
+        CountingResourceResolver resourceResolver = createBeanResourceResolver();
+        ResourceInjector resourceInjector = resolveResourceInjector(resourceResolver,
+            type -> scans.computeIfAbsent(type, k -> new AtomicInteger()).incrementAndGet());
+        int instances = instanceCount();
+
+        // when:
+        long firstNanos = System.nanoTime();
+        resourceInjector.injectResources(new Bean());
+        firstNanos = System.nanoTime() - firstNanos;
+        long lookupsPerInjection = resourceResolver.getLookupCount();
+
+        long warmNanos = System.nanoTime();
+        for (int i = 1; i < instances; i++) {
+            resourceInjector.injectResources(new Bean());
+        }
+        warmNanos = System.nanoTime() - warmNanos;
+
+        reporter.publishEntry("inject.cold.nanos", String.valueOf(firstNanos));
+        reporter.publishEntry("inject.warm.nanos", String.valueOf(warmNanos / Math.max(1, instances - 1)));
+        reporter.publishEntry("inject.lookups.count", String.valueOf(lookupsPerInjection));
+
+        // then:
+        List<Integer> scanCounts = new ArrayList<>();
+        scans.values().forEach(count -> scanCounts.add(count.get()));
+        assertAll(
+            () -> assertThat("Scanned classes", scans.keySet(), hasItem(Bean.class)),
+            () -> assertThat("Scans per class " + scans, scanCounts, everyItem(equalTo(1))),
+            () -> assertThat("Lookups", resourceResolver.getLookupCount(), equalTo(lookupsPerInjection * instances))
+        );
+    }
+
+    @Test
+    public void every_instance_receives_resources() {
+        // given:
+        CountingResourceResolver resourceResolver = createBeanResourceResolver();
+        ResourceInjector resourceInjector = resolveResourceInjector(resourceResolver, ClassScanListener.NONE);
+        List<Bean> beans = new ArrayList<>();
+        for (int i = 0; i < instanceCount(); i++) {
+            beans.add(new Bean());
+        }
+
+        // when:
+        beans.forEach(resourceInjector::injectResources);
+
+        // then:
+        Bean last = beans.get(beans.size() - 1);
+        assertAll(
+            () -> assertThat(last.privateField(), equalTo("privateField")),
+            () -> assertThat(last.fieldBySetter(), equalTo("fieldBySetter")),
+            () -> assertThat(last.privateIntField(), equalTo(42)),
+            () -> assertThat(last.fieldWithKeyAndArgs(), equalTo("with_args 1 2")),
+            () -> assertThat(last.fieldWithKeyWithArgsWithDefault(), equalTo("DEFAULT_WITH_ARGS")),
+            () -> assertThat(last.superPrivateField(), equalTo("superPrivateField")),
+            () -> assertThat(last.superIntFieldBySetter(), equalTo(210)),
+            () -> assertThat(resourceResolver.getLookupCount(ResourceInjectorTest.class.getName() + ".Bean.privateField"),
+                equalTo((long) beans.size()))
+        );
+    }
+
+    /**
+     * Creates a {@code CountingResourceResolver} with the resources required by {@code ResourceInjectorTest.Bean}.
+     */
+    protected static CountingResourceResolver createBeanResourceResolver() {
+        String bean = ResourceInjectorTest.class.getName() + ".Bean.";
+        String superBean = ResourceInjectorTest.class.getName() + ".SuperBean.";
+        Map<String, String> resources = new LinkedHashMap<>();
+        resources.put(bean + "privateField", "privateField");
+        resources.put(bean + "value", "fieldBySetter");
+        resources.put(bean + "privateIntField", "42");
+        resources.put(bean + "intValue", "21");
+        resources.put("sample.key.no_args", "no_args");
+        resources.put("sample.key.with_args", "with_args {0} {1}");
+        resources.put(superBean + "superPrivateField", "superPrivateField");
+        resources.put(superBean + "superValue", "superFieldBySetter");
+        resources.put(superBean + "superPrivateIntField", "420");
+        resources.put(superBean + "superIntValue", "210");
+        resources.put("sample.super.key.no_args", "super_no_args");
+        resources.put("sample.super.key.with_args", "super_with_args {0} {1}");
+        return new CountingResourceResolver(resources);
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.resources.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.function.Executable;
+
+import javax.application.resources.ResourceInjector;
+import javax.application.resources.ResourceResolver;
+import javax.application.resources.tck.ResourceInjectorTest.Bean;
+import javax.application.resources.tck.ResourceInjectorTest.SuperBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Injects resources into many instances of {@code ResourceInjectorTest.Bean} and {@code ResourceInjectorTest.SuperBean}
+ * from several threads at once, sharing a single {@code ResourceInjector}.
+ * <p>
+ * Every round starts with a fresh injector and releases all threads at once, so that the per-class metadata is
+ * computed while other threads already inject. Every member of every instance must be populated, which fails
+ * implementations that publish partially computed metadata. Throughput is measured from 1 to
+ * {@link #maxThreads()} threads against a warm injector, injecting for {@link #measurementDuration()} at every
+ * thread count after a warm-up of {@link #warmupDuration()}; a sample of the injected instances is verified once
+ * timing has stopped. The speedup at each thread count must reach
+ * {@link #minimumEfficiency()} times the number of threads that may run at once, which fails implementations
+ * that serialize injections behind a global lock.
+ *
+ * @author Andres Almiray
+ */
+public abstract class ResourceInjectorConcurrencyTest {
+    protected abstract ResourceInjector resolveResourceInjector(ResourceResolver resourceResolver, ClassScanListener classScanListener);
+
+    protected int maxThreads() {
+        return Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    protected int instancesPerThread() {
+        return 2_000;
+    }
+
+    protected int rounds() {
+        return 10;
+    }
+
+    protected Duration warmupDuration() {
+        return Duration.ofMillis(200);
+    }
+
+    protected Duration measurementDuration() {
+        return Duration.ofMillis(500);
+    }
+
+    /**
+     * Every n-th instance injected while measuring throughput is kept and verified afterwards, up to
+     * {@link #samplesPerThread()} instances per thread and thread count.
+     */
+    protected int sampleInterval() {
+        return 64;
+    }
+
+    protected int samplesPerThread() {
+        return 1_000;
+    }
+
+    protected double minimumEfficiency() {
+        return 0.25d;
+    }
+
+    protected Duration timeout() {
+        return Duration.ofSeconds(60);
+    }
+
+    @Test
+    public void concurrent_injection_populates_every_member(TestReporter reporter) throws Exception {
+        // given:
+        int threads = maxThreads();
+        Queue<String> mismatches = new ConcurrentLinkedQueue<>();
+        AtomicInteger scans = new AtomicInteger();
+
+        // when:
+        for (int round = 0; round < rounds(); round++) {
+            ResourceInjector resourceInjector = resolveResourceInjector(ResourceInjectorCachingTest.createBeanResourceResolver(),
+                type -> scans.incrementAndGet());
+            runThreads(threads, instancesPerThread() / rounds(), resourceInjector, mismatches);
+        }
+        reporter.publishEntry("inject.concurrent.scan.count", String.valueOf(scans.get()));
+        reporter.publishEntry("inject.concurrent.mismatch.count", String.valueOf(mismatches.size()));
+
+        // then:
+        assertNoMismatches(mismatches);
+    }
+
+    @Test
+    public void injection_throughput_scales_with_threads(TestReporter reporter) throws Exception {
+        // given:
+        ResourceInjector resourceInjector = resolveResourceInjector(ResourceInjectorCachingTest.createBeanResourceResolver(), ClassScanListener.NONE);
+        resourceInjector.injectResources(new Bean());
+        resourceInjector.injectResources(new SuperBean());
+        int cores = Runtime.getRuntime().availableProcessors();
+        Queue<SuperBean> samples = new ConcurrentLinkedQueue<>();
+        List<Executable> assertions = new ArrayList<>();
+
+        // when:
+        double singleThreadOpsPerSecond = 0d;
+        for (int threads = 1; threads <= maxThreads(); threads *= 2) {
+            injectFor(threads, warmupDuration(), resourceInjector, new ConcurrentLinkedQueue<>());
+            double opsPerSecond = injectFor(threads, measurementDuration(), resourceInjector, samples);
+            if (threads == 1) {
+                singleThreadOpsPerSecond = opsPerSecond;
+            }
+            double speedup = opsPerSecond / singleThreadOpsPerSecond;
+            double expectedSpeedup = Math.max(1, Math.min(threads, cores)) * minimumEfficiency();
+            String prefix = "inject.threads" + threads;
+            reporter.publishEntry(prefix + ".ops_per_sec", String.valueOf((long) opsPerSecond));
+            reporter.publishEntry(prefix + ".speedup", String.format(Locale.ROOT, "%.2f", speedup));
+
+            // then:
+            assertions.add(() -> assertThat(prefix + " speedup", speedup, greaterThanOrEqualTo(expectedSpeedup)));
+        }
+
+        Queue<String> mismatches = new ConcurrentLinkedQueue<>();
+        for (SuperBean bean : samples) {
+            verify(bean, mismatches);
+        }
+        reporter.publishEntry("inject.throughput.sample.count", String.valueOf(samples.size()));
+        assertions.add(() -> assertNoMismatches(mismatches));
+        assertAll(assertions);
+    }
+
+    /**
+     * Injects from the given number of threads for the given duration, keeping every {@link #sampleInterval()}-th
+     * instance, and returns the number of injections per second. Samples are handed over once timing has stopped.
+     */
+    private double injectFor(int threads, Duration duration, ResourceInjector resourceInjector, Queue<SuperBean> samples) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            int sampleInterval = sampleInterval();
+            int samplesPerThread = samplesPerThread();
+            AtomicBoolean running = new AtomicBoolean(true);
+            CyclicBarrier barrier = new CyclicBarrier(threads + 1);
+            List<Future<Long>> futures = new ArrayList<>();
+            List<List<SuperBean>> keptByThread = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                List<SuperBean> kept = new ArrayList<>(samplesPerThread);
+                keptByThread.add(kept);
+                futures.add(executor.submit(() -> {
+                    long count = 0;
+                    barrier.await();
+                    while (running.get()) {
+                        SuperBean bean = count % 2 == 0 ? new Bean() : new SuperBean();
+                        resourceInjector.injectResources(bean);
+                        if (count++ % sampleInterval == 0 && kept.size() < samplesPerThread) {
+                            kept.add(bean);
+                        }
+                    }
+                    return count;
+                }));
+            }
+
+            barrier.await();
+            long start = System.nanoTime();
+            Thread.sleep(duration.toMillis());
+            running.set(false);
+            long injections = 0;
+            for (Future<Long> future : futures) {
+                injections += future.get(timeout().toMillis(), TimeUnit.MILLISECONDS);
+            }
+            double opsPerSecond = injections * 1_000_000_000d / (System.nanoTime() - start);
+            keptByThread.forEach(samples::addAll);
+            return opsPerSecond;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void runThreads(int threads, int instances, ResourceInjector resourceInjector, Queue<String> mismatches) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CyclicBarrier barrier = new CyclicBarrier(threads + 1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    for (int i = 0; i < instances; i++) {
+                        SuperBean bean = i % 2 == 0 ? new Bean() : new SuperBean();
+                        resourceInjector.injectResources(bean);
+                        verify(bean, mismatches);
+                    }
+                    return null;
+                }));
+            }
+
+            barrier.await();
+            for (Future<?> future : futures) {
+                future.get(timeout().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Fails with the total number of mismatches, listing only the first few of them.
+     */
+    private static void assertNoMismatches(Queue<String> mismatches) {
+        List<String> all = new ArrayList<>(mismatches);
+        List<String> first = all.subList(0, Math.min(20, all.size()));
+        assertThat("Mismatches, the first " + first.size() + " being " + first, all.size(), equalTo(0));
+    }
+
+    private static void verify(SuperBean bean, Queue<String> mismatches) {
+        check(bean, "superPrivateField", bean.superPrivateField(), "superPrivateField", mismatches);
+        check(bean, "superFieldBySetter", bean.superFieldBySetter(), "superFieldBySetter", mismatches);
+        check(bean, "superPrivateIntField", bean.superPrivateIntField(), 420, mismatches);
+        check(bean, "superIntFieldBySetter", bean.superIntFieldBySetter(), 210, mismatches);
+        check(bean, "superFieldWithKey", bean.superFieldWithKey(), "super_no_args", mismatches);
+        check(bean, "superFieldWithKeyAndArgs", bean.superFieldWithKeyAndArgs(), "super_with_args 1 2", mismatches);
+        check(bean, "superFieldWithKeyNoArgsWithDefault", bean.superFieldWithKeyNoArgsWithDefault(), "SUPER_DEFAULT_NO_ARGS", mismatches);
+        check(bean, "superFieldWithKeyWithArgsWithDefault", bean.superFieldWithKeyWithArgsWithDefault(), "SUPER_DEFAULT_WITH_ARGS", mismatches);
+        check(bean, "superNotFound", bean.superNotFound(), null, mismatches);
+        if (bean instanceof Bean) {
+            Bean b = (Bean) bean;
+            check(bean, "privateField", b.privateField(), "privateField", mismatches);
+            check(bean, "fieldBySetter", b.fieldBySetter(), "fieldBySetter", mismatches);
+            check(bean, "privateIntField", b.privateIntField(), 42, mismatches);
+            check(bean, "intFieldBySetter", b.intFieldBySetter(), 21, mismatches);
+            check(bean, "fieldWithKey", b.fieldWithKey(), "no_args", mismatches);
+            check(bean, "fieldWithKeyAndArgs", b.fieldWithKeyAndArgs(), "with_args 1 2", mismatches);
+            check(bean, "fieldWithKeyNoArgsWithDefault", b.fieldWithKeyNoArgsWithDefault(), "DEFAULT_NO_ARGS", mismatches);
+            check(bean, "fieldWithKeyWithArgsWithDefault", b.fieldWithKeyWithArgsWithDefault(), "DEFAULT_WITH_ARGS", mismatches);
+            check(bean, "notFound", b.notFound(), null, mismatches);
+        }
+    }
+
+    private static void check(SuperBean bean, String member, Object actual, Object expected, Queue<String> mismatches) {
+        if (!Objects.equals(actual, expected)) {
+            mismatches.add(bean.getClass().getSimpleName() + "." + member + " expected <" + expected + "> but was <" + actual + "> on " + Thread.currentThread().getName());
+        }
+    }
+}
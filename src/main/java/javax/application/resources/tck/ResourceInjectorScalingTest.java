@@ -0,0 +1,89 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.resources.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.function.Executable;
+
+import javax.application.resources.ResourceInjector;
+import javax.application.resources.ResourceResolver;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Verifies that implementations of {@code ResourceInjector} inject every member of beans with deep class hierarchies
+ * and many injection points, using fixtures generated by {@code InjectionFixture}.
+ * <p>
+ * Every combination of {@link #hierarchyDepths()} and {@link #fieldsPerLevel()} is verified for field injection,
+ * setter injection, {@code args}, and {@code defaultValue} at every level of the hierarchy. The average time of an
+ * injection is published for each combination.
+ *
+ * @author Andres Almiray
+ */
+public abstract class ResourceInjectorScalingTest {
+    protected abstract ResourceInjector resolveResourceInjector(ResourceResolver resourceResolver, ClassScanListener classScanListener);
+
+    protected int[] hierarchyDepths() {
+        return new int[]{1, 4, 8};
+    }
+
+    protected int[] fieldsPerLevel() {
+        return new int[]{4, 32, 128};
+    }
+
+    protected int injectionsPerFixture() {
+        return 100;
+    }
+
+    @Test
+    public void every_level_of_generated_beans_receives_resources(TestReporter reporter) {
+        List<Executable> assertions = new ArrayList<>();
+
+        for (int depth : hierarchyDepths()) {
+            for (int fields : fieldsPerLevel()) {
+                // given:
+                InjectionFixture fixture = InjectionFixture.generate(depth, fields);
+                ResourceInjector resourceInjector = resolveResourceInjector(new CountingResourceResolver(fixture.getResources()), ClassScanListener.NONE);
+                String prefix = "inject.depth" + depth + ".fields" + fields;
+
+                // when:
+                Object bean = fixture.newInstance();
+                resourceInjector.injectResources(bean);
+                List<String> mismatches = fixture.verify(bean);
+
+                int injections = injectionsPerFixture();
+                long nanos = System.nanoTime();
+                for (int i = 0; i < injections; i++) {
+                    resourceInjector.injectResources(fixture.newInstance());
+                }
+                nanos = System.nanoTime() - nanos;
+                reporter.publishEntry(prefix + ".nanos", String.valueOf(nanos / injections));
+
+                // then:
+                assertions.add(() -> assertThat(prefix + " mismatches", mismatches, empty()));
+            }
+        }
+
+        assertAll(assertions);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.resources.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import javax.application.resources.ResourceResolver;
+import javax.application.tck.AllocationBudgetTest;
+import javax.application.tck.EnglishLocaleExtension;
+
+import static javax.application.tck.LookupFixture.KEY_INTEGER;
+import static javax.application.tck.LookupFixture.KEY_PROVERB;
+
+/**
+ * Verifies that {@code ResourceResolver.resolveResource(String)} and
+ * {@code ResourceResolver.resolveResourceConverted(String, Class)} stay within the allocation budgets supplied by
+ * the implementation. The key {@code key.proverb} must resolve to {@code An {0} a day keeps the {1} away}, and the
+ * key {@code key.integer} must resolve to {@code 42}.
+ *
+ * @author Andres Almiray
+ */
+@ExtendWith(EnglishLocaleExtension.class)
+public abstract class ResourceResolverAllocationTest extends AllocationBudgetTest {
+    protected abstract ResourceResolver resolveResourceResolver();
+
+    /**
+     * Maximum bytes {@code resolveResource} may allocate per call.
+     */
+    protected abstract long resolveResourceBytesBudget();
+
+    /**
+     * Maximum bytes {@code resolveResourceConverted} may allocate per call, when converting to {@code Integer}.
+     */
+    protected abstract long resolveResourceConvertedBytesBudget();
+
+    @Test
+    public void resolveResource_allocation_budget(TestReporter reporter) throws Exception {
+        // given:
+        ResourceResolver resourceResolver = resolveResourceResolver();
+
+        // expect:
+        assertBytesPerOperation(reporter, "resource.resolve", resolveResourceBytesBudget(), () -> resourceResolver.resolveResource(KEY_PROVERB));
+    }
+
+    @Test
+    public void resolveResourceConverted_allocation_budget(TestReporter reporter) throws Exception {
+        // given:
+        ResourceResolver resourceResolver = resolveResourceResolver();
+
+        // expect:
+        assertBytesPerOperation(reporter, "resource.resolve_converted", resolveResourceConvertedBytesBudget(), () -> resourceResolver.resolveResourceConverted(KEY_INTEGER, Integer.class));
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.resources.tck;
+
+import javax.application.resources.ResourceResolver;
+import javax.application.tck.CatalogFixture;
+import javax.application.tck.LargeCatalogTest;
+
+/**
+ * Runs {@code LargeCatalogTest} against {@code ResourceResolver.resolveResource(String)}. Implementations must
+ * return a {@code ResourceResolver} that reads resources from the given catalog.
+ *
+ * @author Andres Almiray
+ */
+public abstract class ResourceResolverCatalogTest extends LargeCatalogTest {
+    private ResourceResolver resourceResolver;
+
+    protected abstract ResourceResolver resolveResourceResolver(CatalogFixture catalog);
+
+    @Override
+    protected void load(CatalogFixture catalog) {
+        resourceResolver = resolveResourceResolver(catalog);
+    }
+
+    @Override
+    protected Object lookup(String key) throws Exception {
+        return resourceResolver.resolveResource(key);
+    }
+
+    @Override
+    protected void unload() {
+        resourceResolver = null;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.resources.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.Executable;
+
+import javax.application.resources.NoSuchResourceException;
+import javax.application.resources.ResourceResolver;
+import javax.application.tck.AllocationProbe;
+import javax.application.tck.EnglishLocaleExtension;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static javax.application.tck.LookupFixture.KEY_INTEGER;
+import static javax.application.tck.LookupFixture.TWO_ARGS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Calls {@code ResourceResolver.resolveResourceConverted} repeatedly across a matrix of target types and overloads,
+ * with and without arguments and locale, publishing throughput and bytes allocated per call for every combination.
+ * Implementations that cache converters and converted values allocate little to nothing per call, whereas those
+ * that parse the value on every call do not.
+ * <p>
+ * The following key/value pairs must be resolvable by default
+ * <p>
+ * <pre>
+ * key.integer=42
+ * key.converted.long=9000000000
+ * key.converted.double=3.5
+ * key.converted.boolean=true
+ * </pre>
+ * Override {@link #conversionCases()} to add target types supported by the implementation, such as colors,
+ * dimensions, or enums.
+ *
+ * @author Andres Almiray
+ */
+@ExtendWith(EnglishLocaleExtension.class)
+public abstract class ResourceResolverConversionTest {
+    protected abstract ResourceResolver resolveResourceResolver();
+
+    protected List<ConversionCase<?>> conversionCases() {
+        return defaultConversionCases();
+    }
+
+    protected int callsPerCombination() {
+        return 100_000;
+    }
+
+    @Test
+    public void every_overload_converts_every_type() {
+        // given:
+        ResourceResolver resourceResolver = resolveResourceResolver();
+        List<Executable> assertions = new ArrayList<>();
+
+        for (ConversionCase<?> conversionCase : conversionCases()) {
+            for (Overload overload : Overload.values()) {
+                String description = conversionCase.getName() + " " + overload;
+
+                // expect:
+                assertions.add(() -> {
+                    Object first = overload.resolve(resourceResolver, conversionCase);
+                    Object second = overload.resolve(resourceResolver, conversionCase);
+                    assertThat(description, first, instanceOf(conversionCase.getType()));
+                    assertThat(description, first, equalTo(conversionCase.getExpected()));
+                    assertThat(description, second, equalTo(first));
+                });
+            }
+        }
+
+        assertAll(assertions);
+    }
+
+    @Test
+    public void conversion_throughput_and_allocation(TestReporter reporter) throws Exception {
+        // given:
+        ResourceResolver resourceResolver = resolveResourceResolver();
+        int calls = callsPerCombination();
+        List<Executable> assertions = new ArrayList<>();
+
+        for (ConversionCase<?> conversionCase : conversionCases()) {
+            for (Overload overload : Overload.values()) {
+                String prefix = "converted." + conversionCase.getName() + "." + overload.name().toLowerCase(Locale.ROOT);
+                Object[] result = new Object[1];
+                AllocationProbe.Operation operation = () -> result[0] = overload.resolve(resourceResolver, conversionCase);
+
+                // when:
+                AllocationProbe.bytesPerOperation(calls / 10, operation);
+                long nanos = System.nanoTime();
+                double bytes = AllocationProbe.bytesPerOperation(calls, operation);
+                nanos = System.nanoTime() - nanos;
+
+                reporter.publishEntry(prefix + ".ops_per_sec", String.valueOf((long) (calls * 1_000_000_000d / nanos)));
+                if (AllocationProbe.isSupported()) {
+                    reporter.publishEntry(prefix + ".bytes", String.valueOf(Math.round(bytes)));
+                }
+
+                // then:
+                assertions.add(() -> assertThat(prefix, result[0], equalTo(conversionCase.getExpected())));
+            }
+        }
+
+        assertAll(assertions);
+    }
+
+    protected static List<ConversionCase<?>> defaultConversionCases() {
+        return Arrays.asList(
+            new ConversionCase<>("integer", KEY_INTEGER, Integer.class, 42),
+            new ConversionCase<>("long", "key.converted.long", Long.class, 9_000_000_000L),
+            new ConversionCase<>("double", "key.converted.double", Double.class, 3.5d),
+            new ConversionCase<>("boolean", "key.converted.boolean", Boolean.class, Boolean.TRUE)
+        );
+    }
+
+    /**
+     * The overloads of {@code resolveResourceConverted} that do not take a default value.
+     */
+    public enum Overload {
+        PLAIN {
+            @Override
+            public <T> T resolve(ResourceResolver resourceResolver, ConversionCase<T> conversionCase) throws NoSuchResourceException {
+                return resourceResolver.resolveResourceConverted(conversionCase.getKey(), conversionCase.getType());
+            }
+        },
+        LOCALE {
+            @Override
+            public <T> T resolve(ResourceResolver resourceResolver, ConversionCase<T> conversionCase) throws NoSuchResourceException {
+                return resourceResolver.resolveResourceConverted(conversionCase.getKey(), Locale.ENGLISH, conversionCase.getType());
+            }
+        },
+        ARGS {
+            @Override
+            public <T> T resolve(ResourceResolver resourceResolver, ConversionCase<T> conversionCase) throws NoSuchResourceException {
+                return resourceResolver.resolveResourceConverted(conversionCase.getKey(), TWO_ARGS, conversionCase.getType());
+            }
+        },
+        ARGS_LOCALE {
+            @Override
+            public <T> T resolve(ResourceResolver resourceResolver, ConversionCase<T> conversionCase) throws NoSuchResourceException {
+                return resourceResolver.resolveResourceConverted(conversionCase.getKey(), TWO_ARGS, Locale.ENGLISH, conversionCase.getType());
+            }
+        };
+
+        public abstract <T> T resolve(ResourceResolver resourceResolver, ConversionCase<T> conversionCase) throws NoSuchResourceException;
+    }
+
+    public static final class ConversionCase<T> {
+        private final String name;
+        private final String key;
+        private final Class<T> type;
+        private final T expected;
+
+        public ConversionCase(String name, String key, Class<T> type, T expected) {
+            this.name = name;
+            this.key = key;
+            this.type = type;
+            this.expected = expected;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Class<T> getType() {
+            return type;
+        }
+
+        public T getExpected() {
+            return expected;
+        }
+    }
+}
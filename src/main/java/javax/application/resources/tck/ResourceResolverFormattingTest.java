@@ -0,0 +1,50 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.resources.tck;
+
+import org.junit.jupiter.api.BeforeEach;
+
+import javax.application.resources.ResourceResolver;
+import javax.application.tck.FormattedLookupTest;
+
+/**
+ * Runs {@code FormattedLookupTest} against {@code ResourceResolver.resolveResource(String)} and
+ * {@code ResourceResolver.resolveResource(String, Object[])}.
+ *
+ * @author Andres Almiray
+ */
+public abstract class ResourceResolverFormattingTest extends FormattedLookupTest {
+    private ResourceResolver resourceResolver;
+
+    protected abstract ResourceResolver resolveResourceResolver();
+
+    @BeforeEach
+    public void resolveResourceResolverUnderTest() {
+        resourceResolver = resolveResourceResolver();
+    }
+
+    @Override
+    protected Object lookup(String key) throws Exception {
+        return resourceResolver.resolveResource(key);
+    }
+
+    @Override
+    protected Object lookup(String key, Object[] args) throws Exception {
+        return resourceResolver.resolveResource(key, args);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.resources.tck;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import javax.application.resources.ResourceResolver;
+import javax.application.tck.MissPathTest;
+
+import static javax.application.tck.LookupFixture.KEY_BOGUS;
+import static javax.application.tck.LookupFixture.KEY_INTEGER;
+
+/**
+ * Runs {@code MissPathTest} against {@code ResourceResolver.resolveResource(String)} and
+ * {@code ResourceResolver.resolveResource(String, Object)}, and compares default value misses of
+ * {@code ResourceResolver.resolveResourceConverted(String, Object, Class)} with hits. The key {@code key.integer}
+ * must resolve to {@code 42}.
+ *
+ * @author Andres Almiray
+ */
+public abstract class ResourceResolverMissPathTest extends MissPathTest {
+    private ResourceResolver resourceResolver;
+
+    protected abstract ResourceResolver resolveResourceResolver();
+
+    @BeforeEach
+    public void resolveResourceResolverUnderTest() {
+        resourceResolver = resolveResourceResolver();
+    }
+
+    @Override
+    protected Object lookup(String key) throws Exception {
+        return resourceResolver.resolveResource(key);
+    }
+
+    @Override
+    protected Object lookup(String key, String defaultValue) {
+        return resourceResolver.resolveResource(key, defaultValue);
+    }
+
+    @Test
+    public void converted_default_value_miss_compared_with_hit(TestReporter reporter) throws Exception {
+        compareMissWithHit(reporter, "converted",
+            () -> resourceResolver.resolveResourceConverted(KEY_INTEGER, 0, Integer.class), 42,
+            () -> resourceResolver.resolveResourceConverted(KEY_BOGUS, 7, Integer.class), 7);
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.TestReporter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Base class of the allocation budget variants of the TCK suites, such as {@code EventBusAllocationTest}.
+ * Implementations opt in by extending a variant and supplying its budgets, that is, the maximum number of bytes an
+ * operation may allocate on the calling thread once warmed up.
+ * <p>
+ * Tests are skipped when the JVM does not support allocation tracking, see {@code AllocationProbe}.
+ *
+ * @author Andres Almiray
+ */
+public abstract class AllocationBudgetTest {
+    @BeforeEach
+    public void assumeAllocationTracking() {
+        assumeTrue(AllocationProbe.isSupported(), "Allocation tracking is not supported by this JVM");
+    }
+
+    protected int warmupOperations() {
+        return 10_000;
+    }
+
+    protected int measuredOperations() {
+        return 10_000;
+    }
+
+    /**
+     * Measures the bytes allocated per run of the given operation, publishes them as {@code <name>.bytes}, and
+     * verifies they do not exceed the given budget.
+     */
+    protected void assertBytesPerOperation(TestReporter reporter, String name, long budget, AllocationProbe.Operation operation) throws Exception {
+        // when:
+        long bytes = Math.round(AllocationProbe.bytesPerOperation(warmupOperations(), measuredOperations(), operation));
+
+        reporter.publishEntry(name + ".bytes", String.valueOf(bytes));
+
+        // then:
+        assertThat("Bytes per " + name, bytes, lessThanOrEqualTo(budget));
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the bytes allocated by the current thread while running an operation, relying on
+ * {@code com.sun.management.ThreadMXBean}. Allocation tracking is not available on every JVM; check
+ * {@link #isSupported()} before relying on measurements.
+ *
+ * @author Andres Almiray
+ */
+public final class AllocationProbe {
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = resolveThreadMXBean();
+
+    private AllocationProbe() {
+        // noop
+    }
+
+    public static boolean isSupported() {
+        return THREAD_MX_BEAN != null;
+    }
+
+    /**
+     * Returns the total number of bytes allocated by the current thread so far, or {@code -1} if allocation
+     * tracking is not supported.
+     */
+    public static long currentThreadAllocatedBytes() {
+        return THREAD_MX_BEAN != null ? THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1L;
+    }
+
+    /**
+     * Runs the operation the given number of times on the current thread and returns the average number of bytes
+     * allocated per run, or {@code -1} if allocation tracking is not supported.
+     */
+    public static double bytesPerOperation(int operations, Operation operation) throws Exception {
+        long before = currentThreadAllocatedBytes();
+        for (int i = 0; i < operations; i++) {
+            operation.run();
+        }
+        long after = currentThreadAllocatedBytes();
+        return before < 0 ? -1d : (double) (after - before) / operations;
+    }
+
+    /**
+     * Runs the operation {@code warmupOperations} times, giving the JIT a chance to compile it and to eliminate
+     * allocations that do not escape, then returns the average number of bytes allocated per run over the next
+     * {@code operations} runs, or {@code -1} if allocation tracking is not supported. Only allocations made by the
+     * current thread are accounted for.
+     */
+    public static double bytesPerOperation(int warmupOperations, int operations, Operation operation) throws Exception {
+        for (int i = 0; i < warmupOperations; i++) {
+            operation.run();
+        }
+        return bytesPerOperation(operations, operation);
+    }
+
+    private static com.sun.management.ThreadMXBean resolveThreadMXBean() {
+        try {
+            ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadMXBean;
+                if (bean.isThreadAllocatedMemorySupported()) {
+                    bean.setThreadAllocatedMemoryEnabled(true);
+                    return bean;
+                }
+            }
+        } catch (LinkageError | UnsupportedOperationException | SecurityException e) {
+            // allocation tracking is not available
+        }
+        return null;
+    }
+
+    @FunctionalInterface
+    public interface Operation {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A generated message catalog of a given number of keys, written to disk as a properties file.
+ * <p>
+ * {@link #generate(int)} writes {@code size} entries to {@code <directory>/LargeCatalog.properties}, that is, the
+ * root bundle of base name {@value #BASENAME} within {@link #getDirectory()}. The key and value of entry {@code i}
+ * are {@link #key(int)} and {@link #value(int)}. Implementations that load bundles with {@code ResourceBundle}
+ * may use {@link #newClassLoader()} to find the catalog. Catalogs are generated once per size, in a temporary
+ * directory that is deleted on exit.
+ *
+ * @author Andres Almiray
+ */
+public final class CatalogFixture {
+    public static final String BASENAME = "LargeCatalog";
+    private static final Map<Integer, CatalogFixture> CATALOGS = new ConcurrentHashMap<>();
+
+    private final int size;
+    private final Path directory;
+    private final Path file;
+
+    private CatalogFixture(int size, Path directory, Path file) {
+        this.size = size;
+        this.directory = directory;
+        this.file = file;
+    }
+
+    public static CatalogFixture generate(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive");
+        }
+        return CATALOGS.computeIfAbsent(size, CatalogFixture::write);
+    }
+
+    public static String key(int index) {
+        return "key.catalog." + index;
+    }
+
+    public static String value(int index) {
+        return "Catalog message " + index + " of a generated bundle";
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public String getBasename() {
+        return BASENAME;
+    }
+
+    /**
+     * Returns the directory that holds the catalog, the root of the bundle's base name.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the properties file that holds the catalog.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Returns a class loader that finds the catalog as a resource named {@code LargeCatalog.properties}.
+     */
+    public ClassLoader newClassLoader() {
+        try {
+            return new URLClassLoader(new URL[]{directory.toUri().toURL()}, CatalogFixture.class.getClassLoader());
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static CatalogFixture write(int size) {
+        try {
+            Path directory = Files.createTempDirectory("tck-catalog-" + size);
+            directory.toFile().deleteOnExit();
+            Path file = directory.resolve(BASENAME + ".properties");
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1)) {
+                for (int i = 0; i < size; i++) {
+                    writer.write(key(i));
+                    writer.write('=');
+                    writer.write(value(i));
+                    writer.newLine();
+                }
+            }
+            file.toFile().deleteOnExit();
+            return new CatalogFixture(size, directory, file);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not generate catalog of " + size + " keys", e);
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs many reader threads that look up a mix of keys and locales while, optionally, the underlying bundles are
+ * reloaded.
+ * <p>
+ * Implementations must serve the values of generation {@code 0}, that is, for every locale in
+ * {@link #RELOAD_LOCALES} the entries returned by {@link #reloadValues(Locale, int)}. Implementations that can
+ * reload their bundles while running should override {@link #supportsReload()} and {@link #reload(int)}, the latter
+ * replacing the bundles with those of the given generation. Every lookup must return the value of the generation
+ * that was current when the lookup started or of a later one, but never of a generation that has not been
+ * installed yet, nor a value that belongs to a different key or locale, nor {@code null}, nor fail because the
+ * entry is missing while a bundle is being replaced. A reader must not see an
+ * older generation of an entry once it has seen a newer one.
+ * <p>
+ * Reader throughput is published with and without reloads. Implementations that block readers while reloading
+ * show a much lower throughput during reloads; they may declare the lowest acceptable ratio with
+ * {@link #minimumReloadThroughputRatio()}.
+ *
+ * @author Andres Almiray
+ */
+public abstract class ConcurrentReloadTest {
+    public static final List<Locale> RELOAD_LOCALES = Collections.unmodifiableList(Arrays.asList(
+        Locale.ENGLISH,
+        Locale.GERMAN,
+        Locale.FRENCH,
+        Locale.ITALIAN,
+        Locale.JAPANESE,
+        Locale.CHINESE,
+        new Locale("es"),
+        new Locale("pt", "BR")));
+    public static final int RELOAD_KEY_COUNT = 64;
+
+    private static final int MAX_REPORTED_VIOLATIONS = 20;
+
+    public static String reloadKey(int index) {
+        return "key.reload." + index;
+    }
+
+    public static String reloadValue(String key, Locale locale, int generation) {
+        return valuePrefix(key, locale) + generation;
+    }
+
+    private static String valuePrefix(String key, Locale locale) {
+        return key + "@" + locale + "#";
+    }
+
+    /**
+     * Returns the entries of the bundle for the given locale and generation.
+     */
+    public static Map<String, String> reloadValues(Locale locale, int generation) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int i = 0; i < RELOAD_KEY_COUNT; i++) {
+            String key = reloadKey(i);
+            values.put(key, reloadValue(key, locale, generation));
+        }
+        return values;
+    }
+
+    private final AtomicInteger startedGeneration = new AtomicInteger();
+    private final AtomicInteger completedGeneration = new AtomicInteger();
+    private volatile boolean stopped;
+
+    protected abstract Object lookup(String key, Locale locale) throws Exception;
+
+    /**
+     * Whether {@link #reload(int)} replaces bundles. Reload tests are skipped unless this returns {@code true}.
+     */
+    protected boolean supportsReload() {
+        return false;
+    }
+
+    /**
+     * Replaces the bundles of every locale with those of the given generation. Called from a single thread, with
+     * increasing generations, while reader threads perform lookups, and only when {@link #supportsReload()} returns
+     * {@code true}. Does nothing by default.
+     */
+    protected void reload(int generation) throws Exception {
+        // noop
+    }
+
+    protected int readerThreads() {
+        return Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    protected Duration measurementDuration() {
+        return Duration.ofSeconds(2);
+    }
+
+    protected Duration reloadInterval() {
+        return Duration.ofMillis(5);
+    }
+
+    /**
+     * Lowest acceptable reader throughput during reloads, relative to the throughput without reloads. Defaults to
+     * {@code 0}, that is, throughput is reported only.
+     */
+    protected double minimumReloadThroughputRatio() {
+        return 0d;
+    }
+
+    protected Duration timeout() {
+        return Duration.ofSeconds(30);
+    }
+
+    @Test
+    public void concurrent_lookups_over_mixed_keys_and_locales(TestReporter reporter) throws Exception {
+        // when:
+        ReaderPhase phase = runReaders(false);
+
+        reporter.publishEntry("reload.readers.ops_per_sec", String.valueOf(phase.opsPerSecond()));
+
+        // then:
+        assertAll(
+            () -> assertThat("Lookups", phase.lookups, greaterThan(0L)),
+            () -> assertThat(phase.violations, empty())
+        );
+    }
+
+    @Test
+    public void lookups_during_reloads_see_old_or_new_values(TestReporter reporter) throws Exception {
+        assumeTrue(supportsReload(), "Implementation does not support reloading");
+
+        // given:
+        ReaderPhase baseline = runReaders(false);
+
+        // when:
+        ReaderPhase reloading = runReaders(true);
+        int lastGeneration = completedGeneration.get();
+        double ratio = (double) reloading.opsPerSecond() / Math.max(1L, baseline.opsPerSecond());
+
+        reporter.publishEntry("reload.readers.ops_per_sec", String.valueOf(baseline.opsPerSecond()));
+        reporter.publishEntry("reload.readers.during_reload.ops_per_sec", String.valueOf(reloading.opsPerSecond()));
+        reporter.publishEntry("reload.throughput.ratio", String.format(Locale.ROOT, "%.2f", ratio));
+        reporter.publishEntry("reload.generations.count", String.valueOf(reloading.reloads));
+
+        List<String> stale = new ArrayList<>();
+        for (Locale locale : RELOAD_LOCALES) {
+            for (int i = 0; i < RELOAD_KEY_COUNT; i++) {
+                String key = reloadKey(i);
+                Object value = lookup(key, locale);
+                if (!reloadValue(key, locale, lastGeneration).equals(value)) {
+                    stale.add(key + " for " + locale + " was <" + value + ">");
+                }
+            }
+        }
+
+        // then:
+        assertAll(
+            () -> assertThat("Reloads", reloading.reloads, greaterThan(0)),
+            () -> assertThat(baseline.violations, empty()),
+            () -> assertThat(reloading.violations, empty()),
+            () -> assertThat("Values after the last reload", stale, empty()),
+            () -> assertThat("Reader throughput ratio during reloads", ratio, greaterThanOrEqualTo(minimumReloadThroughputRatio()))
+        );
+    }
+
+    private ReaderPhase runReaders(boolean reloading) throws Exception {
+        int threads = readerThreads();
+        Queue<String> violations = new ConcurrentLinkedQueue<>();
+        CyclicBarrier barrier = new CyclicBarrier(threads + 1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long[] lookups = new long[threads];
+        int reloads = 0;
+        long start;
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int reader = t;
+                futures.add(executor.submit(() -> {
+                    lookups[reader] = read(reader, barrier, violations);
+                    return null;
+                }));
+            }
+
+            barrier.await(timeout().toMillis(), TimeUnit.MILLISECONDS);
+            start = System.nanoTime();
+            long deadline = start + measurementDuration().toNanos();
+            while (System.nanoTime() < deadline) {
+                if (reloading) {
+                    int generation = startedGeneration.incrementAndGet();
+                    reload(generation);
+                    completedGeneration.set(generation);
+                    reloads++;
+                }
+                Thread.sleep(reloading ? Math.max(1L, reloadInterval().toMillis()) : 10L);
+            }
+            stopped = true;
+
+            for (Future<?> future : futures) {
+                future.get(timeout().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            stopped = true;
+            executor.shutdownNow();
+        }
+
+        long nanos = System.nanoTime() - start;
+        stopped = false;
+        return new ReaderPhase(Arrays.stream(lookups).sum(), nanos, reloads, new ArrayList<>(violations));
+    }
+
+    private long read(int reader, CyclicBarrier barrier, Queue<String> violations) throws Exception {
+        int locales = RELOAD_LOCALES.size();
+        int[][] lastSeen = new int[locales][RELOAD_KEY_COUNT];
+        int cursor = reader * 31;
+        long lookups = 0;
+
+        barrier.await(timeout().toMillis(), TimeUnit.MILLISECONDS);
+        while (!stopped) {
+            cursor = (cursor + 7) % (locales * RELOAD_KEY_COUNT);
+            int l = cursor / RELOAD_KEY_COUNT;
+            int k = cursor % RELOAD_KEY_COUNT;
+            Locale locale = RELOAD_LOCALES.get(l);
+            String key = reloadKey(k);
+
+            int lowest = completedGeneration.get();
+            Object value;
+            Exception failure = null;
+            try {
+                value = lookup(key, locale);
+            } catch (Exception e) {
+                value = null;
+                failure = e;
+            }
+            int highest = startedGeneration.get();
+            lookups++;
+
+            String prefix = valuePrefix(key, locale);
+            String violation = null;
+            if (failure != null) {
+                violation = key + " for " + locale + " failed with " + failure;
+            } else if (!(value instanceof String) || !((String) value).startsWith(prefix)) {
+                violation = key + " for " + locale + " was <" + value + ">";
+            } else {
+                int generation = parseGeneration(((String) value).substring(prefix.length()));
+                if (generation < lowest || generation > highest) {
+                    violation = key + " for " + locale + " was <" + value + "> while generations " + lowest + " to " + highest + " were current";
+                } else if (generation < lastSeen[l][k]) {
+                    violation = key + " for " + locale + " was <" + value + "> after generation " + lastSeen[l][k] + " had been seen";
+                } else {
+                    lastSeen[l][k] = generation;
+                }
+            }
+            if (violation != null && violations.size() < MAX_REPORTED_VIOLATIONS) {
+                violations.add(violation);
+            }
+        }
+        return lookups;
+    }
+
+    private static int parseGeneration(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static final class ReaderPhase {
+        private final long lookups;
+        private final long nanos;
+        private final int reloads;
+        private final List<String> violations;
+
+        private ReaderPhase(long lookups, long nanos, int reloads, List<String> violations) {
+            this.lookups = lookups;
+            this.nanos = nanos;
+            this.reloads = reloads;
+            this.violations = violations;
+        }
+
+        private long opsPerSecond() {
+            return (long) (lookups / Math.max(nanos / 1_000_000_000d, 1e-9));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.Locale;
+
+/**
+ * Sets the default locale to {@code Locale.ENGLISH} before every test, and restores the previous default locale
+ * afterwards. Runs before any {@code @BeforeEach} method of the test class.
+ *
+ * @author Andres Almiray
+ */
+public final class EnglishLocaleExtension implements BeforeEachCallback, AfterEachCallback {
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(EnglishLocaleExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(Locale.class, Locale.getDefault());
+        Locale.setDefault(Locale.ENGLISH);
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        Locale.setDefault(context.getStore(NAMESPACE).remove(Locale.class, Locale.class));
+    }
+}
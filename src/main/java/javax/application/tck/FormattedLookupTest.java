@@ -0,0 +1,172 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static javax.application.tck.LookupFixture.KEY_PROVERB;
+import static javax.application.tck.LookupFixture.PROVERB_FORMAT;
+import static javax.application.tck.LookupFixture.PROVERB_TEXT;
+import static javax.application.tck.LookupFixture.TWO_ARGS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Compares lookups of a message that is formatted with arguments against lookups of the same message without
+ * arguments, publishing latency and bytes allocated per call (when {@code AllocationProbe} is supported) for both.
+ * Implementations that build a new {@code MessageFormat} on every formatted lookup allocate considerably more than
+ * those that cache formats.
+ * <p>
+ * Implementations may declare per call allocation budgets with {@link #formattedBytesBudget()} and
+ * {@link #unformattedBytesBudget()}. Formatting is also verified from several threads at once, as cached formats
+ * must not be shared unsafely. Lookups use the keys of {@code LookupFixture}, with {@code Locale.ENGLISH} as default
+ * locale.
+ *
+ * @author Andres Almiray
+ */
+@ExtendWith(EnglishLocaleExtension.class)
+public abstract class FormattedLookupTest {
+    protected abstract Object lookup(String key) throws Exception;
+
+    protected abstract Object lookup(String key, Object[] args) throws Exception;
+
+    protected int callsPerMeasurement() {
+        return 100_000;
+    }
+
+    /**
+     * Maximum bytes a formatted lookup may allocate. Defaults to {@code Long.MAX_VALUE}, that is, no budget.
+     */
+    protected long formattedBytesBudget() {
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Maximum bytes an unformatted lookup may allocate. Defaults to {@code Long.MAX_VALUE}, that is, no budget.
+     */
+    protected long unformattedBytesBudget() {
+        return Long.MAX_VALUE;
+    }
+
+    protected int formattingThreads() {
+        return 4;
+    }
+
+    protected Duration timeout() {
+        return Duration.ofSeconds(30);
+    }
+
+    @Test
+    public void formatted_and_unformatted_lookup_cost(TestReporter reporter) throws Exception {
+        // given:
+        int calls = callsPerMeasurement();
+        Object[] formatted = new Object[1];
+        Object[] unformatted = new Object[1];
+        AllocationProbe.Operation formattedLookup = () -> formatted[0] = lookup(KEY_PROVERB, TWO_ARGS);
+        AllocationProbe.Operation unformattedLookup = () -> unformatted[0] = lookup(KEY_PROVERB);
+
+        // when:
+        AllocationProbe.bytesPerOperation(calls / 10, formattedLookup);
+        AllocationProbe.bytesPerOperation(calls / 10, unformattedLookup);
+
+        long formattedNanos = System.nanoTime();
+        double formattedBytes = AllocationProbe.bytesPerOperation(calls, formattedLookup);
+        formattedNanos = System.nanoTime() - formattedNanos;
+
+        long unformattedNanos = System.nanoTime();
+        double unformattedBytes = AllocationProbe.bytesPerOperation(calls, unformattedLookup);
+        unformattedNanos = System.nanoTime() - unformattedNanos;
+
+        reporter.publishEntry("lookup.formatted.nanos", String.valueOf(formattedNanos / calls));
+        reporter.publishEntry("lookup.unformatted.nanos", String.valueOf(unformattedNanos / calls));
+        if (AllocationProbe.isSupported()) {
+            reporter.publishEntry("lookup.formatted.bytes", String.valueOf(Math.round(formattedBytes)));
+            reporter.publishEntry("lookup.unformatted.bytes", String.valueOf(Math.round(unformattedBytes)));
+        }
+
+        // then:
+        assertAll(
+            () -> assertThat(formatted[0], equalTo(PROVERB_TEXT)),
+            () -> assertThat(unformatted[0], equalTo(PROVERB_FORMAT)),
+            () -> {
+                if (AllocationProbe.isSupported()) {
+                    assertThat("Bytes per formatted lookup", Math.round(formattedBytes), lessThanOrEqualTo(formattedBytesBudget()));
+                }
+            },
+            () -> {
+                if (AllocationProbe.isSupported()) {
+                    assertThat("Bytes per unformatted lookup", Math.round(unformattedBytes), lessThanOrEqualTo(unformattedBytesBudget()));
+                }
+            }
+        );
+    }
+
+    @Test
+    public void formatted_lookups_from_multiple_threads() throws Exception {
+        // given:
+        int threads = formattingThreads();
+        int calls = callsPerMeasurement() / threads;
+        Queue<String> mismatches = new ConcurrentLinkedQueue<>();
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // when:
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String fruit = "apple" + t;
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    for (int i = 0; i < calls; i++) {
+                        String doctor = "doctor" + i;
+                        Object message = lookup(KEY_PROVERB, new Object[]{fruit, doctor});
+                        String expected = "An " + fruit + " a day keeps the " + doctor + " away";
+                        if (!expected.equals(message) && mismatches.size() < 20) {
+                            mismatches.add("expected <" + expected + "> but was <" + message + ">");
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(timeout().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // then:
+        assertThat(new ArrayList<>(mismatches), empty());
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Defines its own copy of a single class, delegating every other class to the class loader of the original class.
+ * <p>
+ * Every instance yields a distinct {@code Class} that shares supertypes with the original class. Such a class may
+ * be unloaded once the class loader becomes unreachable. The copy may also have one of its {@code int} constants
+ * replaced, which lets a single class stand for many classes that differ only in an annotation value.
+ *
+ * @author Andres Almiray
+ */
+public final class IsolatingClassLoader extends ClassLoader {
+    private final String isolatedClassName;
+    private final byte[] bytecode;
+
+    public IsolatingClassLoader(Class<?> isolatedClass) throws IOException {
+        super(isolatedClass.getClassLoader());
+        this.isolatedClassName = isolatedClass.getName();
+        this.bytecode = readBytecode(isolatedClass);
+    }
+
+    /**
+     * Defines a copy of the given class in which every use of the {@code int} constant {@code placeholder}, be it
+     * in code, in a constant field, or in an annotation, is replaced by {@code value}. The placeholder must not fit
+     * in a {@code short}, otherwise the compiler may inline it in the bytecode instead of storing it in the constant
+     * pool.
+     */
+    public IsolatingClassLoader(Class<?> isolatedClass, int placeholder, int value) throws IOException {
+        this(isolatedClass);
+        if (!replaceIntegerConstant(bytecode, placeholder, value)) {
+            throw new IllegalArgumentException("Constant " + placeholder + " not found in " + isolatedClassName);
+        }
+    }
+
+    /**
+     * Returns the copy of the isolated class defined by this class loader.
+     */
+    public Class<?> loadIsolatedClass() {
+        try {
+            return loadClass(isolatedClassName);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!isolatedClassName.equals(name)) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> type = findLoadedClass(name);
+            if (type == null) {
+                type = defineClass(name, bytecode, 0, bytecode.length);
+            }
+            if (resolve) {
+                resolveClass(type);
+            }
+            return type;
+        }
+    }
+
+    private static boolean replaceIntegerConstant(byte[] bytecode, int placeholder, int value) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytecode);
+        // skip magic number, minor and major versions
+        buffer.position(8);
+        int constantPoolCount = buffer.getShort() & 0xFFFF;
+        boolean replaced = false;
+        for (int i = 1; i < constantPoolCount; i++) {
+            int tag = buffer.get();
+            switch (tag) {
+                case 1: // Utf8
+                    int length = buffer.getShort() & 0xFFFF;
+                    buffer.position(buffer.position() + length);
+                    break;
+                case 3: // Integer
+                    if (buffer.getInt(buffer.position()) == placeholder) {
+                        buffer.putInt(buffer.position(), value);
+                        replaced = true;
+                    }
+                    buffer.position(buffer.position() + 4);
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    buffer.position(buffer.position() + 8);
+                    i++;
+                    break;
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    buffer.position(buffer.position() + 4);
+                    break;
+                case 15: // MethodHandle
+                    buffer.position(buffer.position() + 3);
+                    break;
+                case 7: // Class
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    buffer.position(buffer.position() + 2);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+            }
+        }
+        return replaced;
+    }
+
+    private static byte[] readBytecode(Class<?> type) throws IOException {
+        String resource = type.getName().replace('.', '/') + ".class";
+        try (InputStream in = type.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Cannot read " + resource);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.Executable;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Loads catalogs generated by {@code CatalogFixture} for every size in {@link #catalogSizes()} and publishes, per
+ * size, the time from loading a catalog to its first lookup, the heap retained after the first lookup and after
+ * many lookups, and the latency of lookups of random keys once warmed up.
+ * <p>
+ * Implementations that load catalogs lazily, or that index them instead of reading every entry into memory, show
+ * a shorter time to first lookup and a smaller retained heap. They may declare a budget for the latter with
+ * {@link #retainedBytesPerKeyBudget()}. Retained heap is measured as the difference in used heap after garbage
+ * collection, thus it is only an approximation. The largest default catalog, of one million keys, may require a
+ * few hundred megabytes of heap; override {@link #catalogSizes()} to skip it.
+ *
+ * @author Andres Almiray
+ */
+@ExtendWith(EnglishLocaleExtension.class)
+public abstract class LargeCatalogTest {
+    private static final int MAX_REPORTED_MISMATCHES = 20;
+
+    @AfterEach
+    public void cleanup() {
+        unload();
+    }
+
+    /**
+     * Prepares the implementation under test to look up the keys of the given catalog. Called once per catalog.
+     */
+    protected abstract void load(CatalogFixture catalog) throws Exception;
+
+    protected abstract Object lookup(String key) throws Exception;
+
+    /**
+     * Releases every reference to the implementation under test, allowing the catalog loaded last to be collected.
+     */
+    protected abstract void unload();
+
+    protected int[] catalogSizes() {
+        return new int[]{10_000, 100_000, 1_000_000};
+    }
+
+    protected int lookupsPerMeasurement() {
+        return 100_000;
+    }
+
+    /**
+     * Maximum heap retained per key after the first lookup. Defaults to {@code Long.MAX_VALUE}, that is, no budget.
+     */
+    protected long retainedBytesPerKeyBudget() {
+        return Long.MAX_VALUE;
+    }
+
+    @Test
+    public void load_and_lookup_cost_by_catalog_size(TestReporter reporter) throws Exception {
+        List<Executable> assertions = new ArrayList<>();
+
+        for (int size : catalogSizes()) {
+            // given:
+            CatalogFixture catalog = CatalogFixture.generate(size);
+            String prefix = "catalog." + size;
+            unload();
+            long heapBefore = usedHeapAfterGc();
+
+            // when:
+            long firstLookupNanos = System.nanoTime();
+            load(catalog);
+            Object first = lookup(CatalogFixture.key(size - 1));
+            firstLookupNanos = System.nanoTime() - firstLookupNanos;
+            long retainedAfterLoad = Math.max(0L, usedHeapAfterGc() - heapBefore);
+
+            List<String> mismatches = new ArrayList<>();
+            LatencyHistogram latencies = new LatencyHistogram();
+            int lookups = lookupsPerMeasurement();
+            long seed = size;
+            for (int i = 0; i < lookups * 2; i++) {
+                seed = seed * 6364136223846793005L + 1442695040888963407L;
+                int index = (int) ((seed >>> 33) % size);
+                String key = CatalogFixture.key(index);
+                long start = System.nanoTime();
+                Object value = lookup(key);
+                long nanos = System.nanoTime() - start;
+                if (i >= lookups) {
+                    latencies.recordValue(nanos);
+                }
+                if (!CatalogFixture.value(index).equals(value) && mismatches.size() < MAX_REPORTED_MISMATCHES) {
+                    mismatches.add(key + " was <" + value + ">");
+                }
+            }
+            long retainedAfterLookups = Math.max(0L, usedHeapAfterGc() - heapBefore);
+            unload();
+
+            reporter.publishEntry(prefix + ".first_lookup.millis", String.valueOf(firstLookupNanos / 1_000_000L));
+            reporter.publishEntry(prefix + ".retained.bytes", String.valueOf(retainedAfterLoad));
+            reporter.publishEntry(prefix + ".retained_after_lookups.bytes", String.valueOf(retainedAfterLookups));
+            reporter.publishEntry(prefix + ".lookup.mean.nanos", String.valueOf(Math.round(latencies.getMean())));
+            reporter.publishEntry(prefix + ".lookup.p50.nanos", String.valueOf(latencies.getValueAtPercentile(50d)));
+            reporter.publishEntry(prefix + ".lookup.p99.nanos", String.valueOf(latencies.getValueAtPercentile(99d)));
+
+            // then:
+            assertions.add(() -> assertThat(prefix + " first lookup", first, equalTo(CatalogFixture.value(size - 1))));
+            assertions.add(() -> assertThat(prefix + " mismatches", mismatches, empty()));
+            assertions.add(() -> assertThat(prefix + " retained bytes per key", retainedAfterLoad / size, lessThanOrEqualTo(retainedBytesPerKeyBudget())));
+        }
+
+        assertAll(assertions);
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(20L);
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+}
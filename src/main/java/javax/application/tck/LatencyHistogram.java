@@ -0,0 +1,155 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread safe histogram of non-negative values, typically latencies measured in nanoseconds.
+ * <p>
+ * Values are recorded into logarithmic buckets, each one split into 64 linear sub-buckets, which bounds the
+ * relative error of reported percentiles to less than 2%. The minimum and maximum values are tracked exactly.
+ *
+ * @author Andres Almiray
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT << 1;
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - (SUB_BUCKET_BITS + 1)) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalValue = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong();
+
+    public void recordValue(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must not be negative: " + value);
+        }
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+        totalValue.addAndGet(value);
+        min.accumulateAndGet(value, Math::min);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    public long getMinValue() {
+        return getTotalCount() == 0 ? 0 : min.get();
+    }
+
+    public long getMaxValue() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long count = getTotalCount();
+        return count == 0 ? 0 : totalValue.get() / (double) count;
+    }
+
+    /**
+     * Returns the smallest recorded value such that the given percentage of all recorded values are equal or
+     * lower to it. Values are reported as the upper bound of their bucket, capped by the maximum recorded value.
+     *
+     * @param percentile a value in the range [0, 100]
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = getTotalCount();
+        if (count == 0) {
+            return 0;
+        }
+        long threshold = Math.max(1, (long) Math.ceil(Math.min(100d, percentile) / 100d * count));
+        long accumulated = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            accumulated += counts.get(i);
+            if (accumulated >= threshold) {
+                return Math.min(highestEquivalentValue(i), getMaxValue());
+            }
+        }
+        return getMaxValue();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalValue.set(0);
+        min.set(Long.MAX_VALUE);
+        max.set(0);
+    }
+
+    /**
+     * Writes the percentile distribution of this histogram as plain text, one percentile per line, using
+     * {@code unitScale} to convert recorded values (i.e, 1000 to report nanoseconds as microseconds).
+     */
+    public void writePercentileDistribution(Appendable out, double unitScale) throws IOException {
+        out.append(String.format(Locale.ROOT, "%14s %12s %12s%n", "Value", "Percentile", "TotalCount"));
+        double[] percentiles = {0d, 10d, 25d, 50d, 75d, 90d, 95d, 99d, 99.5d, 99.9d, 99.95d, 99.99d, 100d};
+        long count = getTotalCount();
+        for (double percentile : percentiles) {
+            out.append(String.format(Locale.ROOT, "%14.3f %12.6f %12d%n",
+                getValueAtPercentile(percentile) / unitScale,
+                percentile / 100d,
+                (long) Math.ceil(percentile / 100d * count)));
+        }
+        out.append(String.format(Locale.ROOT, "#[Mean = %.3f, Min = %.3f, Max = %.3f, TotalCount = %d]%n",
+            getMean() / unitScale,
+            getMinValue() / unitScale,
+            getMaxValue() / unitScale,
+            count));
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "LatencyHistogram[count=%d, p50=%d, p99=%d, p99.9=%d, max=%d]",
+            getTotalCount(),
+            getValueAtPercentile(50d),
+            getValueAtPercentile(99d),
+            getValueAtPercentile(99.9d),
+            getMaxValue());
+    }
+
+    private static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return LINEAR_LIMIT + (exponent - (SUB_BUCKET_BITS + 1)) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long highestEquivalentValue(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int offset = index - LINEAR_LIMIT;
+        int shift = offset / SUB_BUCKET_COUNT + 1;
+        long subBucket = (offset % SUB_BUCKET_COUNT) + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
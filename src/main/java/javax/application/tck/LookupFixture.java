@@ -0,0 +1,40 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck;
+
+/**
+ * Keys, arguments, and expected values shared by the {@code MessageSource} and {@code ResourceResolver} suites.
+ * Implementations must resolve {@link #KEY_PROVERB} to {@link #PROVERB_FORMAT} for {@code Locale.ENGLISH}, and must
+ * not resolve {@link #KEY_BOGUS} nor {@link #KEY_PROVERB_BOGUS}.
+ *
+ * @author Andres Almiray
+ */
+public final class LookupFixture {
+    public static final Object[] TWO_ARGS = new Object[]{"apple", "doctor"};
+    public static final String DEFAULT_VALUE = "not found";
+    public static final String KEY_PROVERB = "key.proverb";
+    public static final String KEY_PROVERB_BOGUS = "key.proverb.bogus";
+    public static final String KEY_BOGUS = "key.bogus";
+    public static final String KEY_INTEGER = "key.integer";
+    public static final String PROVERB_FORMAT = "An {0} a day keeps the {1} away";
+    public static final String PROVERB_TEXT = "An apple a day keeps the doctor away";
+
+    private LookupFixture() {
+        // noop
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+import static javax.application.tck.LookupFixture.DEFAULT_VALUE;
+import static javax.application.tck.LookupFixture.KEY_BOGUS;
+import static javax.application.tck.LookupFixture.KEY_PROVERB;
+import static javax.application.tck.LookupFixture.PROVERB_FORMAT;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Compares lookups of a missing key against lookups of an existing key, publishing latency and bytes allocated per
+ * call (when {@code AllocationProbe} is supported) for hits, misses that fall back to a default value, and misses
+ * that throw.
+ * <p>
+ * Implementations that throw and catch an exception internally to fall back to a default value pay for a stack
+ * trace on every miss. A default value miss may take at most {@link #maximumMissLatencyRatio()} times as long as a
+ * hit, and may allocate at most {@link #missBytesAllowance()} bytes more than a hit. Misses that throw are measured
+ * but have no budget. Lookups use the keys of {@code LookupFixture}, with {@code Locale.ENGLISH} as default locale.
+ *
+ * @author Andres Almiray
+ */
+@ExtendWith(EnglishLocaleExtension.class)
+public abstract class MissPathTest {
+    protected abstract Object lookup(String key) throws Exception;
+
+    protected abstract Object lookup(String key, String defaultValue);
+
+    protected int callsPerMeasurement() {
+        return 100_000;
+    }
+
+    protected int measurementRounds() {
+        return 3;
+    }
+
+    /**
+     * Maximum latency of a default value miss, relative to the latency of a hit.
+     */
+    protected double maximumMissLatencyRatio() {
+        return 5.0d;
+    }
+
+    /**
+     * Maximum bytes a default value miss may allocate in excess of those allocated by a hit.
+     */
+    protected long missBytesAllowance() {
+        return 64L;
+    }
+
+    @Test
+    public void default_value_miss_compared_with_hit(TestReporter reporter) throws Exception {
+        compareMissWithHit(reporter, "lookup",
+            () -> lookup(KEY_PROVERB, DEFAULT_VALUE), PROVERB_FORMAT,
+            () -> lookup(KEY_BOGUS, DEFAULT_VALUE), DEFAULT_VALUE);
+    }
+
+    @Test
+    public void throwing_miss_cost(TestReporter reporter) throws Exception {
+        // given:
+        long[] outcomes = new long[2];
+        AllocationProbe.Operation miss = () -> {
+            try {
+                lookup(KEY_BOGUS);
+                outcomes[0]++;
+            } catch (Exception e) {
+                outcomes[1]++;
+            }
+        };
+
+        // when:
+        LookupCost cost = measure(miss);
+
+        reporter.publishEntry("lookup.miss.throwing.nanos", String.valueOf(cost.nanos));
+        if (AllocationProbe.isSupported()) {
+            reporter.publishEntry("lookup.miss.throwing.bytes", String.valueOf(Math.round(cost.bytes)));
+        }
+
+        // then:
+        assertAll(
+            () -> assertThat("Misses that returned", outcomes[0], equalTo(0L)),
+            () -> assertThat("Misses that threw", outcomes[1], greaterThan(0L))
+        );
+    }
+
+    /**
+     * Measures the given hit and miss, publishing their costs with the given name as prefix, and verifies that
+     * the miss stays within the latency and allocation budgets relative to the hit.
+     */
+    protected void compareMissWithHit(TestReporter reporter, String name, Callable<?> hit, Object expectedHit, Callable<?> miss, Object expectedMiss) throws Exception {
+        // given:
+        Object[] results = new Object[2];
+
+        // when:
+        LookupCost hitCost = measure(() -> results[0] = hit.call());
+        LookupCost missCost = measure(() -> results[1] = miss.call());
+        double ratio = (double) missCost.nanos / Math.max(1L, hitCost.nanos);
+
+        reporter.publishEntry(name + ".hit.nanos", String.valueOf(hitCost.nanos));
+        reporter.publishEntry(name + ".miss.default.nanos", String.valueOf(missCost.nanos));
+        reporter.publishEntry(name + ".miss.default_to_hit.ratio", String.format(Locale.ROOT, "%.2f", ratio));
+        if (AllocationProbe.isSupported()) {
+            reporter.publishEntry(name + ".hit.bytes", String.valueOf(Math.round(hitCost.bytes)));
+            reporter.publishEntry(name + ".miss.default.bytes", String.valueOf(Math.round(missCost.bytes)));
+        }
+
+        // then:
+        assertAll(
+            () -> assertThat(results[0], equalTo(expectedHit)),
+            () -> assertThat(results[1], equalTo(expectedMiss)),
+            () -> assertThat("Default value miss to hit latency ratio", ratio, lessThanOrEqualTo(maximumMissLatencyRatio())),
+            () -> {
+                if (AllocationProbe.isSupported()) {
+                    assertThat("Bytes per default value miss", Math.round(missCost.bytes), lessThanOrEqualTo(Math.round(hitCost.bytes) + missBytesAllowance()));
+                }
+            }
+        );
+    }
+
+    private LookupCost measure(AllocationProbe.Operation operation) throws Exception {
+        int calls = callsPerMeasurement();
+        long nanos = Long.MAX_VALUE;
+        double bytes = Double.MAX_VALUE;
+
+        AllocationProbe.bytesPerOperation(calls, operation);
+        for (int round = 0; round < measurementRounds(); round++) {
+            long start = System.nanoTime();
+            bytes = Math.min(bytes, AllocationProbe.bytesPerOperation(calls, operation));
+            nanos = Math.min(nanos, (System.nanoTime() - start) / calls);
+        }
+        return new LookupCost(nanos, bytes);
+    }
+
+    private static final class LookupCost {
+        private final long nanos;
+        private final double bytes;
+
+        private LookupCost(long nanos, double bytes) {
+            this.nanos = nanos;
+            this.bytes = bytes;
+        }
+    }
+}
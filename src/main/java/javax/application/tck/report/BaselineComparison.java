@@ -0,0 +1,273 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck.report;
+
+import javax.application.tck.report.PerformanceReport.Measurement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the measurements of a performance report with those of a baseline report.
+ * <p>
+ * A measurement regresses when it is worse than its baseline value by more than the maximum regression, given as a
+ * percentage of the baseline value. The maximum regression may be set per metric suffix, such as {@code bytes} or
+ * {@code nanos}, falling back to a default for every other metric. A measurement improves when it is better than
+ * its baseline value by more than the same percentage. A baseline value of zero admits no percentage: any worsening
+ * of such a measurement counts as an infinite change and regresses whatever the maximum regression, any improvement
+ * improves. Informational metrics, measurements without baseline, and baseline measurements that are missing from
+ * the report never regress; the latter are reported by {@link #getMissing()}.
+ *
+ * @author Andres Almiray
+ */
+public final class BaselineComparison {
+    public enum Outcome {
+        REGRESSED,
+        IMPROVED,
+        UNCHANGED,
+        INFORMATIONAL,
+        NEW,
+        MISSING
+    }
+
+    private final PerformanceReport baseline;
+    private final PerformanceReport current;
+    private final List<Change> changes;
+
+    private BaselineComparison(PerformanceReport baseline, PerformanceReport current, List<Change> changes) {
+        this.baseline = baseline;
+        this.current = current;
+        List<Change> sorted = new ArrayList<>(changes);
+        sorted.sort(Comparator.comparing(Change::getOutcome)
+            .thenComparing(Change::getTest)
+            .thenComparing(Change::getMetric));
+        this.changes = Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * Compares the current report with the baseline report.
+     *
+     * @param maximumRegression          maximum regression, in percent, of metrics without a specific maximum.
+     * @param maximumRegressionBySuffix maximum regression, in percent, keyed by the last segment of metric names.
+     */
+    public static BaselineComparison compare(PerformanceReport baseline, PerformanceReport current, double maximumRegression, Map<String, Double> maximumRegressionBySuffix) {
+        Map<String, Measurement> baselineMeasurements = index(baseline);
+        Map<String, Measurement> currentMeasurements = index(current);
+        List<Change> changes = new ArrayList<>();
+
+        for (Map.Entry<String, Measurement> entry : currentMeasurements.entrySet()) {
+            Measurement measurement = entry.getValue();
+            Measurement previous = baselineMeasurements.get(entry.getKey());
+            double limit = maximumRegressionBySuffix.getOrDefault(suffix(measurement.getMetric()), maximumRegression);
+            if (previous == null) {
+                changes.add(new Change(measurement.getTest(), measurement.getMetric(), null, measurement.getValue(), limit, Outcome.NEW));
+            } else {
+                changes.add(new Change(measurement.getTest(), measurement.getMetric(), previous.getValue(), measurement.getValue(), limit,
+                    outcome(measurement.getDirection(), previous.getValue(), measurement.getValue(), limit)));
+            }
+        }
+        for (Map.Entry<String, Measurement> entry : baselineMeasurements.entrySet()) {
+            if (!currentMeasurements.containsKey(entry.getKey())) {
+                Measurement measurement = entry.getValue();
+                changes.add(new Change(measurement.getTest(), measurement.getMetric(), measurement.getValue(), null, maximumRegression, Outcome.MISSING));
+            }
+        }
+
+        return new BaselineComparison(baseline, current, changes);
+    }
+
+    /**
+     * Returns every change, regressions first, then sorted by test and metric.
+     */
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+    public List<Change> getRegressions() {
+        return changes.stream()
+            .filter(change -> change.getOutcome() == Outcome.REGRESSED)
+            .collect(Collectors.toList());
+    }
+
+    public boolean hasRegressions() {
+        return !getRegressions().isEmpty();
+    }
+
+    /**
+     * Returns the baseline measurements that are missing from the current report.
+     */
+    public List<Change> getMissing() {
+        return changes.stream()
+            .filter(change -> change.getOutcome() == Outcome.MISSING)
+            .collect(Collectors.toList());
+    }
+
+    public boolean hasMissing() {
+        return !getMissing().isEmpty();
+    }
+
+    /**
+     * Returns a plain text summary of the comparison, one line per change followed by the count of each outcome.
+     */
+    public String toText() {
+        StringBuilder text = new StringBuilder()
+            .append("JSR-377 TCK performance comparison\n")
+            .append("Baseline: ").append(describe(baseline)).append('\n')
+            .append("Current:  ").append(describe(current)).append("\n\n");
+
+        int testWidth = 0;
+        int metricWidth = 0;
+        for (Change change : changes) {
+            testWidth = Math.max(testWidth, change.getTest().length());
+            metricWidth = Math.max(metricWidth, change.getMetric().length());
+        }
+
+        Map<Outcome, Integer> counts = new EnumMap<>(Outcome.class);
+        for (Change change : changes) {
+            counts.merge(change.getOutcome(), 1, Integer::sum);
+            text.append(String.format(Locale.ROOT, "%-13s  %-" + Math.max(1, testWidth) + "s  %-" + Math.max(1, metricWidth) + "s  %s%n",
+                change.getOutcome(), change.getTest(), change.getMetric(), change.describe()));
+        }
+
+        text.append('\n').append("Summary:");
+        String separator = " ";
+        for (Outcome outcome : Outcome.values()) {
+            text.append(separator).append(counts.getOrDefault(outcome, 0)).append(' ').append(outcome.name().toLowerCase(Locale.ROOT));
+            separator = ", ";
+        }
+        return text.append('\n').toString();
+    }
+
+    private static Outcome outcome(MetricDirection direction, double baselineValue, double currentValue, double limit) {
+        if (direction == MetricDirection.INFORMATIONAL) {
+            return Outcome.INFORMATIONAL;
+        }
+        double change = percentChange(baselineValue, currentValue);
+        double worsening = direction == MetricDirection.LOWER_IS_BETTER ? change : -change;
+        if (worsening > limit) {
+            return Outcome.REGRESSED;
+        }
+        if (-worsening > limit) {
+            return Outcome.IMPROVED;
+        }
+        return Outcome.UNCHANGED;
+    }
+
+    private static double percentChange(double baselineValue, double currentValue) {
+        if (baselineValue == currentValue) {
+            return 0d;
+        }
+        if (baselineValue == 0d) {
+            return currentValue > 0d ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+        }
+        return (currentValue - baselineValue) / Math.abs(baselineValue) * 100d;
+    }
+
+    private static Map<String, Measurement> index(PerformanceReport report) {
+        Map<String, Measurement> measurements = new LinkedHashMap<>();
+        for (Measurement measurement : report.getMeasurements()) {
+            measurements.put(measurement.getTest() + " " + measurement.getMetric(), measurement);
+        }
+        return measurements;
+    }
+
+    private static String suffix(String metric) {
+        return metric.substring(metric.lastIndexOf('.') + 1);
+    }
+
+    private static String describe(PerformanceReport report) {
+        String label = report.getLabel().isEmpty() ? "unlabeled" : report.getLabel();
+        return label + " (" + report.getCreatedAt() + ")";
+    }
+
+    /**
+     * The outcome of comparing a single measurement with its baseline.
+     */
+    public static final class Change {
+        private final String test;
+        private final String metric;
+        private final Double baselineValue;
+        private final Double currentValue;
+        private final double maximumRegression;
+        private final Outcome outcome;
+
+        private Change(String test, String metric, Double baselineValue, Double currentValue, double maximumRegression, Outcome outcome) {
+            this.test = test;
+            this.metric = metric;
+            this.baselineValue = baselineValue;
+            this.currentValue = currentValue;
+            this.maximumRegression = maximumRegression;
+            this.outcome = outcome;
+        }
+
+        public String getTest() {
+            return test;
+        }
+
+        public String getMetric() {
+            return metric;
+        }
+
+        /**
+         * Returns the baseline value, or {@code null} if the measurement is new.
+         */
+        public Double getBaselineValue() {
+            return baselineValue;
+        }
+
+        /**
+         * Returns the current value, or {@code null} if the measurement is missing from the current report.
+         */
+        public Double getCurrentValue() {
+            return currentValue;
+        }
+
+        /**
+         * Returns the change relative to the baseline value, in percent, or {@code NaN} if either value is absent.
+         * A change from a baseline value of zero is positive or negative infinity.
+         */
+        public double getPercentChange() {
+            return baselineValue != null && currentValue != null ? percentChange(baselineValue, currentValue) : Double.NaN;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        private String describe() {
+            String baselineText = baselineValue != null ? PerformanceReport.formatValue(baselineValue) : "-";
+            String currentText = currentValue != null ? PerformanceReport.formatValue(currentValue) : "-";
+            StringBuilder description = new StringBuilder(baselineText).append(" -> ").append(currentText);
+            double percent = getPercentChange();
+            if (!Double.isNaN(percent)) {
+                description.append(" (").append(Double.isInfinite(percent) ? (percent > 0 ? "+inf" : "-inf") : String.format(Locale.ROOT, "%+.1f", percent)).append('%');
+                if (outcome != Outcome.INFORMATIONAL) {
+                    description.append(String.format(Locale.ROOT, ", limit %.1f%%", maximumRegression));
+                }
+                description.append(')');
+            }
+            return description.toString();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck.report;
+
+/**
+ * Tells whether a larger value of a metric is an improvement or a regression, based on the suffix of its name.
+ * Metrics ending in {@code .nanos}, {@code .millis}, or {@code .bytes} are better when lower; metrics ending in
+ * {@code .ops_per_sec} or {@code .speedup} are better when higher. Any other metric, such as those ending in
+ * {@code .count} or {@code .ratio}, is informational and never considered a regression.
+ *
+ * @author Andres Almiray
+ */
+public enum MetricDirection {
+    LOWER_IS_BETTER,
+    HIGHER_IS_BETTER,
+    INFORMATIONAL;
+
+    public static MetricDirection of(String metric) {
+        if (metric.endsWith(".nanos") || metric.endsWith(".millis") || metric.endsWith(".bytes")) {
+            return LOWER_IS_BETTER;
+        }
+        if (metric.endsWith(".ops_per_sec") || metric.endsWith(".speedup")) {
+            return HIGHER_IS_BETTER;
+        }
+        return INFORMATIONAL;
+    }
+}
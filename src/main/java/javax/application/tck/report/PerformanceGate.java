@@ -0,0 +1,169 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck.report;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares a performance report with a baseline report, prints a plain text summary of the comparison, and exits
+ * with status {@code 1} when any measurement regressed beyond its maximum regression, or when a baseline measurement
+ * is missing from the report and {@code --fail-on-missing} is set, {@code 2} on invalid
+ * arguments or unreadable reports, {@code 0} otherwise. Meant to be run by the build after the tests, for example
+ * with a Gradle {@code JavaExec} task.
+ * <p>
+ * Arguments
+ * <dl>
+ * <dt>{@code --report <file>}</dt><dd>the report to verify (required).</dd>
+ * <dt>{@code --baseline <file>}</dt><dd>the baseline report (required).</dd>
+ * <dt>{@code --summary <file>}</dt><dd>a file to write the summary to, in addition to standard output.</dd>
+ * <dt>{@code --max-regression <percent>}</dt><dd>maximum regression of every metric, defaults to {@code 10}.</dd>
+ * <dt>{@code --max-regression <suffix>=<percent>}</dt><dd>maximum regression of metrics whose name ends in
+ * {@code .<suffix>}, such as {@code bytes=0}; may be repeated.</dd>
+ * <dt>{@code --fail-on-missing}</dt><dd>fails when a measurement of the baseline is missing from the report, for
+ * example because a performance suite no longer runs.</dd>
+ * <dt>{@code --update-baseline}</dt><dd>replaces the baseline with the report instead of comparing them.</dd>
+ * </dl>
+ *
+ * @author Andres Almiray
+ */
+public final class PerformanceGate {
+    private static final double DEFAULT_MAXIMUM_REGRESSION = 10d;
+
+    private PerformanceGate() {
+        // noop
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out));
+    }
+
+    public static int run(String[] args, PrintStream out) {
+        Path reportFile = null;
+        Path baselineFile = null;
+        Path summaryFile = null;
+        boolean updateBaseline = false;
+        boolean failOnMissing = false;
+        double maximumRegression = DEFAULT_MAXIMUM_REGRESSION;
+        Map<String, Double> maximumRegressionBySuffix = new LinkedHashMap<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--report":
+                        reportFile = Paths.get(argument(args, ++i, "--report"));
+                        break;
+                    case "--baseline":
+                        baselineFile = Paths.get(argument(args, ++i, "--baseline"));
+                        break;
+                    case "--summary":
+                        summaryFile = Paths.get(argument(args, ++i, "--summary"));
+                        break;
+                    case "--update-baseline":
+                        updateBaseline = true;
+                        break;
+                    case "--fail-on-missing":
+                        failOnMissing = true;
+                        break;
+                    case "--max-regression": {
+                        String value = argument(args, ++i, "--max-regression");
+                        int separator = value.indexOf('=');
+                        if (separator < 0) {
+                            maximumRegression = percent(value);
+                        } else {
+                            String suffix = value.substring(0, separator);
+                            maximumRegressionBySuffix.put(suffix.startsWith(".") ? suffix.substring(1) : suffix, percent(value.substring(separator + 1)));
+                        }
+                        break;
+                    }
+                    default:
+                        throw new IllegalArgumentException("Unknown argument " + args[i]);
+                }
+            }
+            if (reportFile == null || baselineFile == null) {
+                throw new IllegalArgumentException("Both --report and --baseline are required");
+            }
+        } catch (IllegalArgumentException e) {
+            out.println(e.getMessage());
+            out.println("Usage: PerformanceGate --report <file> --baseline <file> [--summary <file>] [--max-regression [<suffix>=]<percent>]... [--fail-on-missing] [--update-baseline]");
+            return 2;
+        }
+
+        try {
+            if (updateBaseline) {
+                PerformanceReport.read(reportFile);
+                Path parent = baselineFile.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                Files.copy(reportFile, baselineFile, StandardCopyOption.REPLACE_EXISTING);
+                out.println("Baseline " + baselineFile + " updated from " + reportFile);
+                return 0;
+            }
+            if (!Files.exists(baselineFile)) {
+                out.println("Baseline " + baselineFile + " does not exist; run with --update-baseline to create it from " + reportFile);
+                return 2;
+            }
+
+            BaselineComparison comparison = BaselineComparison.compare(
+                PerformanceReport.read(baselineFile),
+                PerformanceReport.read(reportFile),
+                maximumRegression,
+                maximumRegressionBySuffix);
+            String summary = comparison.toText();
+            out.print(summary);
+            if (summaryFile != null) {
+                Path parent = summaryFile.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                Files.write(summaryFile, summary.getBytes(StandardCharsets.UTF_8));
+            }
+            return comparison.hasRegressions() || (failOnMissing && comparison.hasMissing()) ? 1 : 0;
+        } catch (IOException | IllegalArgumentException e) {
+            out.println("Could not compare performance reports: " + e);
+            return 2;
+        }
+    }
+
+    private static String argument(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value of " + option);
+        }
+        return args[index];
+    }
+
+    private static double percent(String value) {
+        try {
+            double percent = Double.parseDouble(value);
+            if (percent < 0d || Double.isNaN(percent)) {
+                throw new IllegalArgumentException("Maximum regression must not be negative: " + value);
+            }
+            return percent;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid maximum regression " + value);
+        }
+    }
+}
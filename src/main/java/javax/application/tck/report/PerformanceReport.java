@@ -0,0 +1,280 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck.report;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The numeric results published by the performance suites of the TCK during a test run, together with the
+ * environment they were measured in.
+ * <p>
+ * Reports are stored as JSON documents of the following shape, where {@code formatVersion} is
+ * {@value #FORMAT_VERSION} and {@code label} is chosen by the implementation, for example its version:
+ * <pre>
+ * {
+ *   "formatVersion": 1,
+ *   "label": "my-implementation 1.2.0",
+ *   "createdAt": "2021-06-01T10:15:30Z",
+ *   "environment": { "java.version": "11.0.11", ... },
+ *   "measurements": [
+ *     { "test": "com.acme.MyEventBusTest#publishEvent_allocation_budget", "metric": "event.publish.bytes", "value": 64, "direction": "LOWER_IS_BETTER" },
+ *     ...
+ *   ]
+ * }
+ * </pre>
+ *
+ * @author Andres Almiray
+ */
+public final class PerformanceReport {
+    public static final int FORMAT_VERSION = 1;
+
+    private static final String[] ENVIRONMENT_PROPERTIES = {
+        "java.version", "java.vendor", "java.vm.name", "os.name", "os.arch"
+    };
+    private static final Object MERGE_LOCK = new Object();
+
+    private final String label;
+    private final String createdAt;
+    private final Map<String, String> environment;
+    private final List<Measurement> measurements;
+
+    private PerformanceReport(String label, String createdAt, Map<String, String> environment, List<Measurement> measurements) {
+        this.label = label;
+        this.createdAt = createdAt;
+        this.environment = Collections.unmodifiableMap(environment);
+        List<Measurement> sorted = new ArrayList<>(measurements);
+        sorted.sort(Comparator.comparing(Measurement::getTest).thenComparing(Measurement::getMetric));
+        this.measurements = Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * Creates a report of the given measurements, taken now in the current environment.
+     */
+    public static PerformanceReport create(String label, List<Measurement> measurements) {
+        Map<String, String> environment = new LinkedHashMap<>();
+        for (String property : ENVIRONMENT_PROPERTIES) {
+            environment.put(property, System.getProperty(property, ""));
+        }
+        environment.put("availableProcessors", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        return new PerformanceReport(label, Instant.now().toString(), environment, measurements);
+    }
+
+    public static PerformanceReport read(Path file) throws IOException {
+        return fromJson(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static PerformanceReport fromJson(String json) {
+        Object document = Json.parse(json);
+        if (!(document instanceof Map)) {
+            throw new IllegalArgumentException("A performance report must be a JSON object");
+        }
+        Map<String, Object> report = (Map<String, Object>) document;
+        Object formatVersion = report.get("formatVersion");
+        if (!(formatVersion instanceof Double) || ((Double) formatVersion).intValue() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported performance report format version " + formatVersion);
+        }
+
+        Map<String, String> environment = new LinkedHashMap<>();
+        Object environmentValues = report.get("environment");
+        if (environmentValues instanceof Map) {
+            ((Map<String, Object>) environmentValues).forEach((key, value) -> environment.put(key, String.valueOf(value)));
+        }
+
+        List<Measurement> measurements = new ArrayList<>();
+        Object measurementValues = report.get("measurements");
+        if (measurementValues instanceof List) {
+            for (Object element : (List<Object>) measurementValues) {
+                Map<String, Object> measurement = element instanceof Map ? (Map<String, Object>) element : Collections.emptyMap();
+                Object test = measurement.get("test");
+                Object metric = measurement.get("metric");
+                Object value = measurement.get("value");
+                if (!(test instanceof String) || !(metric instanceof String) || !(value instanceof Number)) {
+                    throw new IllegalArgumentException("Invalid measurement " + element);
+                }
+                measurements.add(new Measurement((String) test, (String) metric, ((Number) value).doubleValue()));
+            }
+        }
+
+        return new PerformanceReport(
+            String.valueOf(report.getOrDefault("label", "")),
+            String.valueOf(report.getOrDefault("createdAt", "")),
+            environment,
+            measurements);
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public Map<String, String> getEnvironment() {
+        return environment;
+    }
+
+    /**
+     * Returns all measurements, sorted by test and metric.
+     */
+    public List<Measurement> getMeasurements() {
+        return measurements;
+    }
+
+    public void write(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.write(file, toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes this report to the given file, merged with the report the file already holds, if any. Measurements of
+     * this report replace those of the existing report with the same test and metric, every other measurement of the
+     * existing report is kept. The file is locked while it is merged, thus several JVMs, such as the forks of a
+     * single test task, may merge their reports into the same file concurrently.
+     */
+    public void mergeInto(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        synchronized (MERGE_LOCK) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // released when the channel is closed
+                channel.lock();
+                String existing = read(channel);
+                PerformanceReport merged = existing.trim().isEmpty() ? this : fromJson(existing).mergedWith(this);
+                channel.truncate(0);
+                ByteBuffer buffer = ByteBuffer.wrap(merged.toJson().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, buffer.position());
+                }
+            }
+        }
+    }
+
+    private PerformanceReport mergedWith(PerformanceReport newer) {
+        Map<String, Measurement> merged = new LinkedHashMap<>();
+        for (Measurement measurement : measurements) {
+            merged.put(measurement.getTest() + " " + measurement.getMetric(), measurement);
+        }
+        for (Measurement measurement : newer.measurements) {
+            merged.put(measurement.getTest() + " " + measurement.getMetric(), measurement);
+        }
+        return new PerformanceReport(newer.label, newer.createdAt, newer.environment, new ArrayList<>(merged.values()));
+    }
+
+    private static String read(FileChannel channel) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = 0;
+        int read;
+        while ((read = channel.read(buffer, position)) > 0) {
+            bytes.write(buffer.array(), 0, read);
+            position += read;
+            buffer.clear();
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder()
+            .append("{\n")
+            .append("  \"formatVersion\": ").append(FORMAT_VERSION).append(",\n")
+            .append("  \"label\": ").append(Json.quote(label)).append(",\n")
+            .append("  \"createdAt\": ").append(Json.quote(createdAt)).append(",\n")
+            .append("  \"environment\": {");
+        String separator = "\n";
+        for (Map.Entry<String, String> entry : environment.entrySet()) {
+            json.append(separator).append("    ").append(Json.quote(entry.getKey())).append(": ").append(Json.quote(entry.getValue()));
+            separator = ",\n";
+        }
+        json.append(environment.isEmpty() ? "},\n" : "\n  },\n")
+            .append("  \"measurements\": [");
+        separator = "\n";
+        for (Measurement measurement : measurements) {
+            json.append(separator)
+                .append("    { \"test\": ").append(Json.quote(measurement.getTest()))
+                .append(", \"metric\": ").append(Json.quote(measurement.getMetric()))
+                .append(", \"value\": ").append(formatValue(measurement.getValue()))
+                .append(", \"direction\": ").append(Json.quote(measurement.getDirection().name()))
+                .append(" }");
+            separator = ",\n";
+        }
+        return json.append(measurements.isEmpty() ? "]\n" : "\n  ]\n").append("}\n").toString();
+    }
+
+    static String formatValue(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return String.valueOf((long) value);
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * A single numeric result, identified by the test that published it and the name of the metric.
+     */
+    public static final class Measurement {
+        private final String test;
+        private final String metric;
+        private final double value;
+
+        public Measurement(String test, String metric, double value) {
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                throw new IllegalArgumentException("Value of " + metric + " must be finite");
+            }
+            this.test = Objects.requireNonNull(test, "test");
+            this.metric = Objects.requireNonNull(metric, "metric");
+            this.value = value;
+        }
+
+        public String getTest() {
+            return test;
+        }
+
+        public String getMetric() {
+            return metric;
+        }
+
+        public double getValue() {
+            return value;
+        }
+
+        public MetricDirection getDirection() {
+            return MetricDirection.of(metric);
+        }
+    }
+}
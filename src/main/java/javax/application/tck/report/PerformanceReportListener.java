@@ -0,0 +1,114 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck.report;
+
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.reporting.ReportEntry;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+
+import javax.application.tck.report.PerformanceReport.Measurement;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects the numeric report entries published by the performance suites of the TCK and writes them as a
+ * {@code PerformanceReport} once the test plan has been executed.
+ * <p>
+ * The listener is registered with the JUnit Platform through {@code ServiceLoader}, thus it is active whenever the
+ * TCK is on the test runtime classpath, but it only writes a report when the system property
+ * {@value #REPORT_FILE_PROPERTY} names the file to write. The optional system property
+ * {@value #REPORT_LABEL_PROPERTY} labels the report, for example with the version of the implementation.
+ * Entries whose value is not a number are ignored. When a test publishes the same metric more than once, the last
+ * value is kept.
+ * <p>
+ * The report is merged into the file rather than replacing it, so that a test task that forks several JVMs, each
+ * running its own test plan, produces a single report holding the measurements of every fork. As a consequence the
+ * file must be deleted before each test run, otherwise measurements of tests that no longer run are carried over
+ * from previous runs.
+ *
+ * @author Andres Almiray
+ */
+public class PerformanceReportListener implements TestExecutionListener {
+    public static final String REPORT_FILE_PROPERTY = "jsr377.tck.report.file";
+    public static final String REPORT_LABEL_PROPERTY = "jsr377.tck.report.label";
+
+    private final Map<String, Measurement> measurements = new ConcurrentHashMap<>();
+    private volatile String reportFile;
+
+    @Override
+    public void testPlanExecutionStarted(TestPlan testPlan) {
+        measurements.clear();
+        reportFile = System.getProperty(REPORT_FILE_PROPERTY);
+    }
+
+    @Override
+    public void reportingEntryPublished(TestIdentifier testIdentifier, ReportEntry entry) {
+        if (reportFile == null) {
+            return;
+        }
+        String test = testName(testIdentifier);
+        for (Map.Entry<String, String> pair : entry.getKeyValuePairs().entrySet()) {
+            Double value = parseValue(pair.getValue());
+            if (value != null) {
+                measurements.put(test + " " + pair.getKey(), new Measurement(test, pair.getKey(), value));
+            }
+        }
+    }
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        if (reportFile == null) {
+            return;
+        }
+        PerformanceReport report = PerformanceReport.create(System.getProperty(REPORT_LABEL_PROPERTY, ""), new ArrayList<>(measurements.values()));
+        try {
+            report.mergeInto(Paths.get(reportFile));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write performance report to " + reportFile, e);
+        }
+    }
+
+    private static String testName(TestIdentifier testIdentifier) {
+        TestSource source = testIdentifier.getSource().orElse(null);
+        if (source instanceof MethodSource) {
+            MethodSource method = (MethodSource) source;
+            return method.getClassName() + "#" + method.getMethodName();
+        }
+        if (source instanceof ClassSource) {
+            return ((ClassSource) source).getClassName();
+        }
+        return testIdentifier.getDisplayName();
+    }
+
+    private static Double parseValue(String text) {
+        try {
+            double value = Double.parseDouble(text.trim());
+            return Double.isNaN(value) || Double.isInfinite(value) ? null : value;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
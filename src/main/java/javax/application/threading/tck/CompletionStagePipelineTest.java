@@ -0,0 +1,239 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.threading.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import javax.application.tck.LatencyHistogram;
+import javax.application.threading.ThreadingHandler;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Builds long pipelines of {@code CompletionStage}s that alternate between
+ * {@code ThreadingHandler.executeOutsideUIAsync(Callable)} and {@code ThreadingHandler.executeInsideUIAsync(Callable)},
+ * chained with {@code thenCompose}.
+ * <p>
+ * Stage 0 runs outside the UI thread, odd stages run inside the UI thread, and even stages run outside of it. Each
+ * stage adds one to the value produced by its predecessor. Besides results, exception propagation, and cancellation
+ * through a {@code CompletableFuture} owned by the test, the number of thread switches and the latency between the
+ * end of a stage and the start of the next are published as report entries.
+ *
+ * @author Andres Almiray
+ */
+public abstract class CompletionStagePipelineTest {
+    protected abstract ThreadingHandler resolveThreadingHandler();
+
+    protected abstract boolean isUIThread();
+
+    protected int stageCount() {
+        return 20;
+    }
+
+    protected Duration timeout() {
+        return Duration.ofSeconds(2);
+    }
+
+    @Test
+    public void alternating_pipeline_produces_result(TestReporter reporter) throws Exception {
+        // given:
+        Pipeline pipeline = new Pipeline(stageCount(), -1, -1, null);
+
+        // when:
+        Integer result = pipeline.last.toCompletableFuture().get(timeout().toMillis(), TimeUnit.MILLISECONDS);
+
+        int switches = 0;
+        Set<Thread> threads = new HashSet<>();
+        LatencyHistogram hops = new LatencyHistogram();
+        for (int i = 0; i <= pipeline.stages; i++) {
+            StageRecord record = pipeline.records.get(i);
+            threads.add(record.thread);
+            if (i > 0) {
+                StageRecord previous = pipeline.records.get(i - 1);
+                if (record.thread != previous.thread) {
+                    switches++;
+                }
+                hops.recordValue(Math.max(0L, record.startedAt - previous.finishedAt));
+            }
+        }
+        reporter.publishEntry("pipeline.thread_switch.count", String.valueOf(switches));
+        reporter.publishEntry("pipeline.thread.count", String.valueOf(threads.size()));
+        reporter.publishEntry("pipeline.hop.mean.nanos", String.valueOf((long) hops.getMean()));
+        reporter.publishEntry("pipeline.hop.p99.nanos", String.valueOf(hops.getValueAtPercentile(99d)));
+        reporter.publishEntry("pipeline.total.nanos",
+            String.valueOf(pipeline.records.get(pipeline.stages).finishedAt - pipeline.records.get(0).startedAt));
+
+        // then:
+        assertAll(
+            () -> assertThat(result, equalTo(pipeline.stages)),
+            () -> assertThat("Stages run on the wrong side of the UI thread", pipeline.misplacedStages(), equalTo(0))
+        );
+    }
+
+    @Test
+    public void exception_propagates_to_end_of_pipeline() throws Exception {
+        // given:
+        int failingStage = stageCount() / 2;
+        Pipeline pipeline = new Pipeline(stageCount(), failingStage, -1, null);
+
+        // when:
+        ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> pipeline.last.toCompletableFuture().get(timeout().toMillis(), TimeUnit.MILLISECONDS));
+
+        // then:
+        assertAll(
+            () -> assertThat(exception.getCause(), instanceOf(PipelineException.class)),
+            () -> assertThat(((PipelineException) exception.getCause()).stage, equalTo(failingStage)),
+            () -> assertThat("Stages run after the failure", pipeline.records.get(failingStage + 1), nullValue())
+        );
+    }
+
+    @Test
+    public void cancellation_stops_downstream_stages() throws Exception {
+        // given:
+        int cancelledStage = stageCount() / 2;
+        CompletableFuture<Void> gate = new CompletableFuture<>();
+        Pipeline pipeline = new Pipeline(stageCount(), -1, cancelledStage, gate);
+        Integer beforeCancellation = pipeline.stage(cancelledStage - 1).toCompletableFuture()
+            .get(timeout().toMillis(), TimeUnit.MILLISECONDS);
+
+        // when:
+        gate.cancel(true);
+        Throwable failure = pipeline.last.toCompletableFuture()
+            .handle((value, throwable) -> throwable)
+            .get(timeout().toMillis(), TimeUnit.MILLISECONDS);
+
+        // then:
+        assertAll(
+            () -> assertThat(beforeCancellation, equalTo(cancelledStage - 1)),
+            () -> assertThat(unwrap(failure), instanceOf(CancellationException.class)),
+            () -> assertThat(pipeline.last.toCompletableFuture().isCompletedExceptionally(), equalTo(true)),
+            () -> assertThat("Stages run after cancellation", pipeline.records.get(cancelledStage), nullValue())
+        );
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
+
+    private final class Pipeline {
+        private final ThreadingHandler threadingHandler = resolveThreadingHandler();
+        private final AtomicReferenceArray<StageRecord> records;
+        private final CompletionStage<?>[] futures;
+        private final int stages;
+        private final int failingStage;
+        private final CompletionStage<Integer> last;
+
+        /**
+         * When {@code gate} is given, stage {@code gatedStage} starts only once {@code gate} completes, thus
+         * cancelling {@code gate} cancels the pipeline from that stage on.
+         */
+        private Pipeline(int stages, int failingStage, int gatedStage, CompletableFuture<Void> gate) {
+            this.stages = stages;
+            this.failingStage = failingStage;
+            this.records = new AtomicReferenceArray<>(stages + 1);
+            this.futures = new CompletionStage<?>[stages + 1];
+
+            CompletionStage<Integer> stage = threadingHandler.executeOutsideUIAsync(() -> run(0, 0));
+            futures[0] = stage;
+            for (int i = 1; i <= stages; i++) {
+                int index = i;
+                if (index == gatedStage && gate != null) {
+                    stage = stage.thenCombine(gate, (value, ignored) -> value);
+                }
+                if (index % 2 == 1) {
+                    stage = stage.thenCompose(value -> threadingHandler.executeInsideUIAsync(() -> run(index, value)));
+                } else {
+                    stage = stage.thenCompose(value -> threadingHandler.executeOutsideUIAsync(() -> run(index, value)));
+                }
+                futures[index] = stage;
+            }
+            this.last = stage;
+        }
+
+        @SuppressWarnings("unchecked")
+        private CompletionStage<Integer> stage(int index) {
+            return (CompletionStage<Integer>) futures[index];
+        }
+
+        private Integer run(int index, int value) throws Exception {
+            long startedAt = System.nanoTime();
+            StageRecord record = new StageRecord(Thread.currentThread(), isUIThread() == (index % 2 == 1), startedAt);
+            records.set(index, record);
+            if (index == failingStage) {
+                throw new PipelineException(index);
+            }
+            record.finishedAt = System.nanoTime();
+            return value + (index == 0 ? 0 : 1);
+        }
+
+        private int misplacedStages() {
+            int misplaced = 0;
+            for (int i = 0; i <= stages; i++) {
+                if (!records.get(i).onExpectedSide) {
+                    misplaced++;
+                }
+            }
+            return misplaced;
+        }
+    }
+
+    private static final class StageRecord {
+        private final Thread thread;
+        private final boolean onExpectedSide;
+        private final long startedAt;
+        private volatile long finishedAt;
+
+        private StageRecord(Thread thread, boolean onExpectedSide, long startedAt) {
+            this.thread = thread;
+            this.onExpectedSide = onExpectedSide;
+            this.startedAt = startedAt;
+        }
+    }
+
+    public static class PipelineException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final int stage;
+
+        public PipelineException(int stage) {
+            super("Stage " + stage + " failed");
+            this.stage = stage;
+        }
+
+        public int getStage() {
+            return stage;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.threading.tck;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.application.threading.ThreadingHandler;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+
+/**
+ * Runs {@code ThreadingHandlerTest} without a UI toolkit. Implementations must return a {@code ThreadingHandler}
+ * that posts UI work to the given {@code HeadlessUIThread} and uses its {@code isUIThread()} predicate.
+ * A fresh {@code HeadlessUIThread} is created for every test, and every test fails if a task posted to it threw.
+ *
+ * @author Andres Almiray
+ */
+public abstract class HeadlessThreadingHandlerTest extends ThreadingHandlerTest {
+    private HeadlessUIThread uiThread;
+    private ThreadingHandler threadingHandler;
+
+    protected abstract ThreadingHandler resolveThreadingHandler(HeadlessUIThread uiThread);
+
+    @BeforeEach
+    public void startUIThread() {
+        uiThread = new HeadlessUIThread();
+        threadingHandler = resolveThreadingHandler(uiThread);
+    }
+
+    @AfterEach
+    public void stopUIThread() {
+        uiThread.close();
+
+        // then:
+        assertThat("Tasks that failed on the UI thread", uiThread.getFailures(), empty());
+    }
+
+    @Override
+    protected ThreadingHandler resolveThreadingHandler() {
+        return threadingHandler;
+    }
+
+    @Override
+    protected boolean isUIThread() {
+        return uiThread.isUIThread();
+    }
+
+    protected HeadlessUIThread uiThread() {
+        return uiThread;
+    }
+
+    @Test
+    public void verify_executeInsideUIAsync_runs_on_headless_ui_thread() {
+        // given:
+        AtomicBoolean executeWitness = new AtomicBoolean();
+
+        // when:
+        resolveThreadingHandler().executeInsideUIAsync(() -> executeWitness.set(true));
+        await().timeout(2, TimeUnit.SECONDS).until(uiThread::getExecutedTaskCount, greaterThanOrEqualTo(1L));
+
+        // then:
+        assertThat(executeWitness.get(), equalTo(true));
+        assertThat(uiThread.getWaitTimes().getTotalCount(), greaterThanOrEqualTo(1L));
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.threading.tck;
+
+import javax.application.tck.LatencyHistogram;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A single threaded event loop that stands in for the UI thread of a toolkit, thus allowing {@code ThreadingHandler}
+ * implementations to be verified without a display.
+ * <p>
+ * Tasks submitted with {@link #execute(Runnable)} run in submission order on a dedicated thread, for which
+ * {@link #isUIThread()} returns {@code true}. The loop keeps track of its queue depth and of the time tasks wait
+ * in the queue before they run. Exceptions thrown by tasks do not stop the loop, they are collected instead.
+ *
+ * @author Andres Almiray
+ */
+public final class HeadlessUIThread implements Executor, AutoCloseable {
+    private final BlockingQueue<QueuedTask> queue = new LinkedBlockingQueue<>();
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+    private final AtomicLong executedTasks = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public HeadlessUIThread() {
+        this("tck-headless-ui-thread");
+    }
+
+    public HeadlessUIThread(String name) {
+        thread = new Thread(this::loop, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!running) {
+            throw new RejectedExecutionException("Headless UI thread has been closed");
+        }
+        queue.add(new QueuedTask(task, System.nanoTime()));
+        maxQueueDepth.accumulateAndGet(queue.size(), Math::max);
+    }
+
+    public boolean isUIThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    public Thread getThread() {
+        return thread;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    public long getExecutedTaskCount() {
+        return executedTasks.get();
+    }
+
+    /**
+     * Returns the time (in nanoseconds) tasks waited in the queue before running.
+     */
+    public LatencyHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    public List<Throwable> getFailures() {
+        return new ArrayList<>(failures);
+    }
+
+    /**
+     * Clears wait times, executed task count, maximum queue depth, and collected failures.
+     */
+    public void resetStatistics() {
+        waitTimes.reset();
+        executedTasks.set(0);
+        maxQueueDepth.set(queue.size());
+        failures.clear();
+    }
+
+    /**
+     * Stops the loop. Tasks that have not run yet are discarded.
+     */
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        queue.clear();
+    }
+
+    private void loop() {
+        while (running) {
+            QueuedTask task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                continue;
+            }
+            waitTimes.recordValue(Math.max(0L, System.nanoTime() - task.enqueuedAt));
+            try {
+                task.runnable.run();
+            } catch (Throwable t) {
+                failures.add(t);
+            }
+            executedTasks.incrementAndGet();
+        }
+    }
+
+    private static final class QueuedTask {
+        private final Runnable runnable;
+        private final long enqueuedAt;
+
+        private QueuedTask(Runnable runnable, long enqueuedAt) {
+            this.runnable = runnable;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.threading.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.function.Executable;
+
+import javax.application.threading.ThreadingHandler;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Submits batches of CPU bound and of blocking tasks to {@code ThreadingHandler.executeOutsideUIAsync(Runnable)}
+ * and compares the wall clock time of each batch with the time it takes to run the same tasks sequentially.
+ * <p>
+ * Batches hold 1x, 2x, and 8x {@link #parallelism()} tasks. For every batch the observed speedup must reach
+ * {@link #minimumEfficiency()} times the number of tasks that may run at once, which fails implementations whose
+ * background executor is accidentally single threaded. The peak number of tasks observed running at once must not
+ * exceed {@link #maximumConcurrency()}, which fails implementations that spawn a thread per task.
+ * Speedup and peak concurrency of every batch are published as report entries.
+ *
+ * @author Andres Almiray
+ */
+public abstract class OutsideUIParallelismTest {
+    private static volatile long sink;
+
+    protected abstract ThreadingHandler resolveThreadingHandler();
+
+    protected abstract boolean isUIThread();
+
+    /**
+     * Number of tasks the background executor is expected to run at once. Defaults to the number of cores.
+     */
+    protected int parallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    protected int[] batchMultipliers() {
+        return new int[]{1, 2, 8};
+    }
+
+    protected double minimumEfficiency() {
+        return 0.5d;
+    }
+
+    protected int maximumConcurrency() {
+        return parallelism() * 4;
+    }
+
+    protected Duration taskDuration() {
+        return Duration.ofMillis(10);
+    }
+
+    protected Duration batchTimeout() {
+        return Duration.ofSeconds(30);
+    }
+
+    @Test
+    public void cpu_bound_batches_scale_with_cores(TestReporter reporter) throws Exception {
+        // given:
+        long iterations = calibrateIterations(taskDuration());
+        Runnable task = () -> sink += spin(iterations);
+
+        // expect:
+        assertBatchesScale("cpu", task, reporter);
+    }
+
+    @Test
+    public void blocking_batches_scale_with_cores(TestReporter reporter) throws Exception {
+        // given:
+        long sleepMillis = taskDuration().toMillis();
+        Runnable task = () -> {
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        // expect:
+        assertBatchesScale("blocking", task, reporter);
+    }
+
+    private void assertBatchesScale(String kind, Runnable task, TestReporter reporter) throws Exception {
+        ThreadingHandler threadingHandler = resolveThreadingHandler();
+        List<Executable> assertions = new ArrayList<>();
+
+        for (int multiplier : batchMultipliers()) {
+            // given:
+            int batchSize = parallelism() * multiplier;
+            String prefix = "outside." + kind + "." + multiplier + "x";
+
+            // when:
+            long sequentialNanos = System.nanoTime();
+            for (int i = 0; i < batchSize; i++) {
+                task.run();
+            }
+            sequentialNanos = System.nanoTime() - sequentialNanos;
+
+            AtomicInteger active = new AtomicInteger();
+            AtomicInteger peak = new AtomicInteger();
+            AtomicInteger offThread = new AtomicInteger();
+            CountDownLatch completed = new CountDownLatch(batchSize);
+            long parallelNanos = System.nanoTime();
+            for (int i = 0; i < batchSize; i++) {
+                threadingHandler.executeOutsideUIAsync(() -> {
+                    peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    try {
+                        if (!isUIThread()) {
+                            offThread.incrementAndGet();
+                        }
+                        task.run();
+                    } finally {
+                        active.decrementAndGet();
+                        completed.countDown();
+                    }
+                });
+            }
+            boolean finished = completed.await(batchTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            parallelNanos = System.nanoTime() - parallelNanos;
+
+            double speedup = (double) sequentialNanos / parallelNanos;
+            double expectedSpeedup = Math.min(batchSize, parallelism()) * minimumEfficiency();
+            reporter.publishEntry(prefix + ".speedup", String.format(Locale.ROOT, "%.2f", speedup));
+            reporter.publishEntry(prefix + ".peak.count", String.valueOf(peak.get()));
+
+            // then:
+            assertions.add(() -> assertThat(prefix + " completed", finished, equalTo(true)));
+            assertions.add(() -> assertThat(prefix + " tasks outside the UI thread", offThread.get(), equalTo(batchSize)));
+            assertions.add(() -> assertThat(prefix + " speedup", speedup, greaterThanOrEqualTo(expectedSpeedup)));
+            assertions.add(() -> assertThat(prefix + " peak concurrency", peak.get(), lessThanOrEqualTo(maximumConcurrency())));
+        }
+
+        assertAll(assertions);
+    }
+
+    private static long calibrateIterations(Duration target) {
+        long targetNanos = target.toNanos();
+        long iterations = 1_000;
+        while (true) {
+            long start = System.nanoTime();
+            sink += spin(iterations);
+            long elapsed = System.nanoTime() - start;
+            if (elapsed >= targetNanos / 2) {
+                return Math.max(1L, (long) (iterations * ((double) targetNanos / elapsed)));
+            }
+            iterations *= 2;
+        }
+    }
+
+    private static long spin(long iterations) {
+        long value = iterations;
+        for (long i = 0; i < iterations; i++) {
+            value = value * 6364136223846793005L + 1442695040888963407L;
+        }
+        return value;
+    }
+}
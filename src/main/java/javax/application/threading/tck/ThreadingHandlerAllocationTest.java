@@ -0,0 +1,65 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.threading.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import javax.application.tck.AllocationBudgetTest;
+import javax.application.threading.ThreadingHandler;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Verifies that {@code ThreadingHandler.executeInsideUIAsync(Runnable)} stays within the allocation budget supplied
+ * by the implementation. The same task is posted from a thread other than the UI thread over and over; only
+ * allocations made on the posting thread are accounted for, those made by the UI thread when running the task
+ * are not.
+ *
+ * @author Andres Almiray
+ */
+public abstract class ThreadingHandlerAllocationTest extends AllocationBudgetTest {
+    protected abstract ThreadingHandler resolveThreadingHandler();
+
+    protected abstract boolean isUIThread();
+
+    /**
+     * Maximum bytes {@code executeInsideUIAsync} may allocate per call on the calling thread.
+     */
+    protected abstract long executeInsideUIAsyncBytesBudget();
+
+    @Test
+    public void executeInsideUIAsync_allocation_budget(TestReporter reporter) throws Exception {
+        // expect:
+        assertThat(isUIThread(), equalTo(false));
+
+        // given:
+        ThreadingHandler threadingHandler = resolveThreadingHandler();
+        AtomicLong executed = new AtomicLong();
+        Runnable task = executed::incrementAndGet;
+        long posted = warmupOperations() + measuredOperations();
+
+        // expect:
+        assertBytesPerOperation(reporter, "ui.execute_async", executeInsideUIAsyncBytesBudget(), () -> threadingHandler.executeInsideUIAsync(task));
+        await().timeout(10, TimeUnit.SECONDS).until(executed::get, equalTo(posted));
+    }
+}
@@ -25,10 +25,12 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.awaitility.Awaitility.await;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
 
 /**
  * @author Andres Almiray
@@ -148,19 +150,16 @@ public abstract class ThreadingHandlerTest {
         assertThat(isUIThread(), equalTo(false));
 
         // given:
-        AtomicBoolean executeWitness = new AtomicBoolean();
-        Callable<Boolean> task = () -> {
-            executeWitness.set(true);
-            return !isUIThread();
-        };
+        AtomicReference<Boolean> resultWitness = new AtomicReference<>();
+        Callable<Boolean> task = () -> !isUIThread();
 
         // when:
         CompletionStage<Boolean> promise = resolveThreadingHandler().executeOutsideUIAsync(task);
-        promise.thenAccept(result -> {
-            // then:
-            assertThat(result, equalTo(true));
-        });
-        await().timeout(2, TimeUnit.SECONDS).until(executeWitness::get, equalTo(true));
+        promise.thenAccept(resultWitness::set);
+        await().timeout(2, TimeUnit.SECONDS).until(resultWitness::get, notNullValue());
+
+        // then:
+        assertThat(resultWitness.get(), equalTo(true));
     }
 
     @Test
@@ -169,18 +168,15 @@ public abstract class ThreadingHandlerTest {
         assertThat(isUIThread(), equalTo(false));
 
         // given:
-        AtomicBoolean executeWitness = new AtomicBoolean();
-        Callable<Boolean> task = () -> {
-            executeWitness.set(true);
-            return isUIThread();
-        };
+        AtomicReference<Boolean> resultWitness = new AtomicReference<>();
+        Callable<Boolean> task = () -> isUIThread();
 
         // when:
         CompletionStage<Boolean> promise = resolveThreadingHandler().executeInsideUIAsync(task);
-        promise.thenAccept(result -> {
-            // then:
-            assertThat(result, equalTo(true));
-        });
-        await().timeout(2, TimeUnit.SECONDS).until(executeWitness::get, equalTo(true));
+        promise.thenAccept(resultWitness::set);
+        await().timeout(2, TimeUnit.SECONDS).until(resultWitness::get, notNullValue());
+
+        // then:
+        assertThat(resultWitness.get(), equalTo(true));
     }
 }
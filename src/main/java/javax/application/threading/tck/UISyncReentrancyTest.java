@@ -0,0 +1,225 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.threading.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import javax.application.threading.ThreadingHandler;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Verifies that both {@code executeInsideUISync} overloads run their task inline when invoked from the UI thread,
+ * including nested invocations, instead of posting the task to the UI thread and blocking until it runs, which
+ * would never happen.
+ * <p>
+ * Every test reaches the UI thread with {@code executeInsideUIAsync(Runnable)} and fails if the task does not
+ * complete within {@link #timeout()}.
+ *
+ * @author Andres Almiray
+ */
+public abstract class UISyncReentrancyTest {
+    protected abstract ThreadingHandler resolveThreadingHandler();
+
+    protected abstract boolean isUIThread();
+
+    protected int nestingDepth() {
+        return 8;
+    }
+
+    protected int latencySamples() {
+        return 10_000;
+    }
+
+    protected Duration timeout() {
+        return Duration.ofSeconds(2);
+    }
+
+    @Test
+    public void executeInsideUISync_from_ui_thread_runs_inline() throws Exception {
+        // given:
+        ThreadingHandler threadingHandler = resolveThreadingHandler();
+        List<String> trace = new ArrayList<>();
+
+        // when:
+        Thread[] threads = runOnUIThread(() -> {
+            Thread caller = Thread.currentThread();
+            Thread[] executor = new Thread[1];
+            trace.add("before");
+            threadingHandler.executeInsideUISync(() -> {
+                executor[0] = Thread.currentThread();
+                trace.add("inside");
+            });
+            trace.add("after");
+            return new Thread[]{caller, executor[0]};
+        });
+
+        // then:
+        assertAll(
+            () -> assertThat(trace, contains("before", "inside", "after")),
+            () -> assertThat(threads[1], equalTo(threads[0]))
+        );
+    }
+
+    @Test
+    public void executeInsideUISync_and_return_value_from_ui_thread_runs_inline() throws Exception {
+        // given:
+        ThreadingHandler threadingHandler = resolveThreadingHandler();
+        List<String> trace = new ArrayList<>();
+
+        // when:
+        Thread[] threads = runOnUIThread(() -> {
+            Thread caller = Thread.currentThread();
+            trace.add("before");
+            Thread executor = threadingHandler.executeInsideUISync(() -> {
+                trace.add("inside");
+                return Thread.currentThread();
+            });
+            trace.add("after");
+            return new Thread[]{caller, executor};
+        });
+
+        // then:
+        assertAll(
+            () -> assertThat(trace, contains("before", "inside", "after")),
+            () -> assertThat(threads[1], equalTo(threads[0]))
+        );
+    }
+
+    @Test
+    public void nested_executeInsideUISync_from_ui_thread_runs_inline() throws Exception {
+        // given:
+        ThreadingHandler threadingHandler = resolveThreadingHandler();
+        int depth = nestingDepth();
+        List<String> trace = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int level = 1; level <= depth; level++) {
+            expected.add("enter:" + level);
+        }
+        for (int level = depth; level >= 1; level--) {
+            expected.add("exit:" + level);
+        }
+
+        // when:
+        Integer deepest = runOnUIThread(() -> nest(threadingHandler, trace, 1, depth));
+
+        // then:
+        assertAll(
+            () -> assertThat(deepest, equalTo(depth)),
+            () -> assertThat(trace, equalTo(expected))
+        );
+    }
+
+    @Test
+    public void executeInsideUISync_latency_on_and_off_ui_thread(TestReporter reporter) throws Exception {
+        // expect:
+        assertThat(isUIThread(), equalTo(false));
+
+        // given:
+        ThreadingHandler threadingHandler = resolveThreadingHandler();
+        int samples = latencySamples();
+        AtomicInteger runs = new AtomicInteger();
+        AtomicInteger runsOnUIThread = new AtomicInteger();
+        Runnable task = () -> {
+            runs.incrementAndGet();
+            if (isUIThread()) {
+                runsOnUIThread.incrementAndGet();
+            }
+        };
+
+        // when:
+        long onThreadNanos = runOnUIThread(() -> {
+            long start = System.nanoTime();
+            for (int i = 0; i < samples; i++) {
+                threadingHandler.executeInsideUISync(task);
+            }
+            return System.nanoTime() - start;
+        });
+        int onThreadRuns = runs.getAndSet(0);
+        int onThreadRunsOnUIThread = runsOnUIThread.getAndSet(0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < samples; i++) {
+            threadingHandler.executeInsideUISync(task);
+        }
+        long offThreadNanos = System.nanoTime() - start;
+
+        reporter.publishEntry("ui.sync.on_thread.nanos", String.valueOf(onThreadNanos / samples));
+        reporter.publishEntry("ui.sync.off_thread.nanos", String.valueOf(offThreadNanos / samples));
+
+        // then:
+        assertAll(
+            () -> assertThat(onThreadRuns, equalTo(samples)),
+            () -> assertThat(onThreadRunsOnUIThread, equalTo(samples)),
+            () -> assertThat(runs.get(), equalTo(samples)),
+            () -> assertThat(runsOnUIThread.get(), equalTo(samples))
+        );
+    }
+
+    private Integer nest(ThreadingHandler threadingHandler, List<String> trace, int level, int depth) {
+        trace.add("enter:" + level);
+        int deepest = level;
+        if (level < depth) {
+            // alternate between overloads on every level
+            if (level % 2 == 0) {
+                int[] result = new int[1];
+                threadingHandler.executeInsideUISync(() -> {
+                    result[0] = nest(threadingHandler, trace, level + 1, depth);
+                });
+                deepest = result[0];
+            } else {
+                deepest = threadingHandler.executeInsideUISync(() -> nest(threadingHandler, trace, level + 1, depth));
+            }
+        }
+        trace.add("exit:" + level);
+        return deepest;
+    }
+
+    private <R> R runOnUIThread(Callable<R> task) throws Exception {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        resolveThreadingHandler().executeInsideUIAsync(() -> {
+            try {
+                if (!isUIThread()) {
+                    throw new IllegalStateException("executeInsideUIAsync did not run on the UI thread");
+                }
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+
+        try {
+            return result.get(timeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return fail("executeInsideUISync did not complete within " + timeout() + " when invoked from the UI thread");
+        }
+    }
+}
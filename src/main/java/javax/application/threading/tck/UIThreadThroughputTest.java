@@ -0,0 +1,170 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.threading.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import javax.application.tck.LatencyHistogram;
+import javax.application.threading.ThreadingHandler;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Submits bursts of small tasks to {@code ThreadingHandler.executeInsideUIAsync(Runnable)} from several producer
+ * threads at once.
+ * <p>
+ * Verifies that every task runs on the UI thread and that tasks submitted by the same producer run in submission
+ * order. Enqueue cost, drain throughput, and the time tasks wait before running on the UI thread are published as
+ * report entries.
+ *
+ * @author Andres Almiray
+ */
+public abstract class UIThreadThroughputTest {
+    protected abstract ThreadingHandler resolveThreadingHandler();
+
+    protected abstract boolean isUIThread();
+
+    protected int producerThreads() {
+        return 4;
+    }
+
+    protected int taskCount() {
+        return 100_000;
+    }
+
+    protected Duration drainTimeout() {
+        return Duration.ofSeconds(30);
+    }
+
+    @Test
+    public void executeInsideUIAsync_burst_from_multiple_producers(TestReporter reporter) throws Exception {
+        // given:
+        ThreadingHandler threadingHandler = resolveThreadingHandler();
+        int producers = producerThreads();
+        int tasksPerProducer = taskCount() / producers;
+        int totalTasks = tasksPerProducer * producers;
+        BurstState state = new BurstState(producers, totalTasks);
+        AtomicLong enqueueNanos = new AtomicLong();
+        CyclicBarrier startBarrier = new CyclicBarrier(producers);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads.add(new Thread(() -> {
+                try {
+                    startBarrier.await();
+                } catch (Exception e) {
+                    return;
+                }
+                long start = System.nanoTime();
+                for (int sequence = 0; sequence < tasksPerProducer; sequence++) {
+                    threadingHandler.executeInsideUIAsync(new SequencedTask(state, producer, sequence, System.nanoTime()));
+                }
+                enqueueNanos.addAndGet(System.nanoTime() - start);
+            }, "tck-ui-producer-" + p));
+        }
+
+        // when:
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        boolean drained = state.completed.await(drainTimeout().toMillis(), TimeUnit.MILLISECONDS);
+
+        reporter.publishEntry("ui.enqueue.nanos", String.valueOf(enqueueNanos.get() / totalTasks));
+        if (drained) {
+            double drainSeconds = (state.lastRunAt - state.firstRunAt) / 1_000_000_000d;
+            reporter.publishEntry("ui.drain.ops_per_sec", String.valueOf((long) (totalTasks / Math.max(drainSeconds, 1e-9))));
+        }
+        reporter.publishEntry("ui.wait.p50.nanos", String.valueOf(state.waitTimes.getValueAtPercentile(50d)));
+        reporter.publishEntry("ui.wait.p99.nanos", String.valueOf(state.waitTimes.getValueAtPercentile(99d)));
+        reporter.publishEntry("ui.wait.p999.nanos", String.valueOf(state.waitTimes.getValueAtPercentile(99.9d)));
+        reporter.publishEntry("ui.wait.max.nanos", String.valueOf(state.waitTimes.getMaxValue()));
+
+        // then:
+        assertAll(
+            () -> assertThat("All tasks run", drained, equalTo(true)),
+            () -> assertThat("Tasks run outside the UI thread", state.offThreadRuns, equalTo(0)),
+            () -> assertThat("Tasks run out of order", state.outOfOrderRuns, equalTo(0))
+        );
+    }
+
+    /**
+     * State shared by all tasks of a burst. It is only mutated on the UI thread, and read once all tasks completed.
+     */
+    private final class BurstState {
+        private final int[] nextSequence;
+        private final CountDownLatch completed;
+        private final LatencyHistogram waitTimes = new LatencyHistogram();
+        private int offThreadRuns;
+        private int outOfOrderRuns;
+        private long firstRunAt;
+        private long lastRunAt;
+
+        private BurstState(int producers, int tasks) {
+            this.nextSequence = new int[producers];
+            this.completed = new CountDownLatch(tasks);
+        }
+
+        private void run(int producer, int sequence, long submittedAt) {
+            long now = System.nanoTime();
+            if (firstRunAt == 0) {
+                firstRunAt = now;
+            }
+            lastRunAt = now;
+            waitTimes.recordValue(Math.max(0L, now - submittedAt));
+            if (!isUIThread()) {
+                offThreadRuns++;
+            }
+            if (nextSequence[producer] != sequence) {
+                outOfOrderRuns++;
+            }
+            nextSequence[producer] = sequence + 1;
+            completed.countDown();
+        }
+    }
+
+    private static final class SequencedTask implements Runnable {
+        private final BurstState state;
+        private final int producer;
+        private final int sequence;
+        private final long submittedAt;
+
+        private SequencedTask(BurstState state, int producer, int sequence, long submittedAt) {
+            this.state = state;
+            this.producer = producer;
+            this.sequence = sequence;
+            this.submittedAt = submittedAt;
+        }
+
+        @Override
+        public void run() {
+            state.run(producer, sequence, submittedAt);
+        }
+    }
+}
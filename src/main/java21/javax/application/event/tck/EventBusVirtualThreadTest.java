@@ -0,0 +1,190 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.event.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import javax.application.event.EventBus;
+import javax.application.event.EventHandler;
+import javax.application.tck.VirtualThreadProbe;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Calls {@code EventBus.publishEventAsync} from thousands of virtual threads, delivering to a handler that blocks
+ * briefly, while a {@code VirtualThreadProbe} watches for pinned virtual threads and starved carriers.
+ * <p>
+ * The suite fails when a virtual thread is pinned while running implementation code, as selected by
+ * {@link #implementationFrames(EventBus)}, or when carrier threads are starved beyond
+ * {@link #carrierDelayBudget()}. Throughput of virtual thread publishers is compared with that of a pool of
+ * {@link #platformPublishers()} platform threads publishing the same events to a handler that does not block; the
+ * clock stops once every publisher returned, thus the comparison does not depend on how fast events are delivered.
+ * <p>
+ * Requires JDK 21 or later.
+ *
+ * @author Andres Almiray
+ */
+public abstract class EventBusVirtualThreadTest {
+    protected abstract EventBus resolveEventBus();
+
+    protected int publishers() {
+        return 10_000;
+    }
+
+    protected int platformPublishers() {
+        return 200;
+    }
+
+    protected Duration handlerDuration() {
+        return Duration.ofMillis(1);
+    }
+
+    protected Duration pinnedThreshold() {
+        return Duration.ZERO;
+    }
+
+    protected Duration carrierDelayBudget() {
+        return Duration.ofSeconds(1);
+    }
+
+    protected Duration timeout() {
+        return Duration.ofSeconds(30);
+    }
+
+    /**
+     * Selects the stack frames that belong to the implementation. Defaults to classes in the package of the
+     * given {@code EventBus}, or any of its subpackages.
+     */
+    protected Predicate<String> implementationFrames(EventBus eventBus) {
+        String packagePrefix = eventBus.getClass().getPackageName() + ".";
+        return className -> className.startsWith(packagePrefix);
+    }
+
+    @Test
+    public void publishEventAsync_from_virtual_threads_does_not_pin(TestReporter reporter) throws Exception {
+        // given:
+        EventBus eventBus = resolveEventBus();
+        BlockingEventHandler eventHandler = new BlockingEventHandler(handlerDuration());
+        eventBus.subscribe(eventHandler);
+        int publishers = publishers();
+
+        // when:
+        try (VirtualThreadProbe probe = new VirtualThreadProbe(pinnedThreshold())) {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                submitPublishers(executor, eventBus, publishers);
+            }
+            await().timeout(timeout()).until(eventHandler.handled::get, equalTo(publishers));
+            probe.stop();
+
+            List<String> pinnedInImplementation = probe.describePinnedEvents(implementationFrames(eventBus));
+            long carrierDelay = probe.getCarrierDelays().getValueAtPercentile(99d);
+            reporter.publishEntry("virtual.pinned.count", String.valueOf(probe.getPinnedEvents().size()));
+            reporter.publishEntry("virtual.carrier_delay.p99.nanos", String.valueOf(carrierDelay));
+
+            // then:
+            assertAll(
+                () -> assertThat("Pinned inside implementation code", pinnedInImplementation, empty()),
+                () -> assertThat("Carrier delay p99 (ns)", carrierDelay, lessThanOrEqualTo(carrierDelayBudget().toNanos()))
+            );
+        } finally {
+            eventBus.unsubscribe(eventHandler);
+        }
+    }
+
+    @Test
+    public void virtual_thread_publishers_compared_with_platform_thread_publishers(TestReporter reporter) {
+        // given:
+        EventBus eventBus = resolveEventBus();
+        CountingEventHandler eventHandler = new CountingEventHandler();
+        eventBus.subscribe(eventHandler);
+        int publishers = publishers();
+
+        // when:
+        long virtualNanos = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            submitPublishers(executor, eventBus, publishers);
+        }
+        virtualNanos = System.nanoTime() - virtualNanos;
+        await().timeout(timeout()).until(eventHandler.handled::get, equalTo(publishers));
+
+        long platformNanos = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(platformPublishers())) {
+            submitPublishers(executor, eventBus, publishers);
+        }
+        platformNanos = System.nanoTime() - platformNanos;
+        await().timeout(timeout()).until(eventHandler.handled::get, equalTo(publishers * 2));
+        eventBus.unsubscribe(eventHandler);
+
+        reporter.publishEntry("virtual.ops_per_sec", String.valueOf(publishers * 1_000_000_000L / virtualNanos));
+        reporter.publishEntry("platform.ops_per_sec", String.valueOf(publishers * 1_000_000_000L / platformNanos));
+        reporter.publishEntry("virtual.speedup", String.format(Locale.ROOT, "%.2f", (double) platformNanos / virtualNanos));
+
+        // then:
+        assertThat(eventHandler.handled.get(), equalTo(publishers * 2));
+    }
+
+    private static void submitPublishers(ExecutorService executor, EventBus eventBus, int publishers) {
+        for (int i = 0; i < publishers; i++) {
+            executor.execute(() -> eventBus.publishEventAsync(new VirtualThreadEvent()));
+        }
+    }
+
+    public static class VirtualThreadEvent implements EventBusTest.Event {
+    }
+
+    public static class CountingEventHandler {
+        private final AtomicInteger handled = new AtomicInteger();
+
+        @EventHandler
+        public void handleVirtualThreadEvent(VirtualThreadEvent event) {
+            handled.incrementAndGet();
+        }
+    }
+
+    public static class BlockingEventHandler {
+        private final AtomicInteger handled = new AtomicInteger();
+        private final long sleepMillis;
+
+        public BlockingEventHandler(Duration handlerDuration) {
+            this.sleepMillis = handlerDuration.toMillis();
+        }
+
+        @EventHandler
+        public void handleVirtualThreadEvent(VirtualThreadEvent event) {
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            handled.incrementAndGet();
+        }
+    }
+}
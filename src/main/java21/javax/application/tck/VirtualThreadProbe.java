@@ -0,0 +1,141 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Watches virtual threads while a workload runs. It records JFR {@code jdk.VirtualThreadPinned} events, with their
+ * stack traces, and measures how late a virtual thread that sleeps for one millisecond at a time wakes up, which
+ * grows when carrier threads are starved.
+ * <p>
+ * Create the probe before the workload starts and call {@link #stop()} once it completes.
+ *
+ * @author Andres Almiray
+ */
+public final class VirtualThreadProbe implements AutoCloseable {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Recording recording = new Recording();
+    private final LatencyHistogram carrierDelays = new LatencyHistogram();
+    private final Thread ticker;
+    private volatile boolean running = true;
+    private List<RecordedEvent> pinnedEvents = Collections.emptyList();
+
+    public VirtualThreadProbe(Duration pinnedThreshold) {
+        recording.enable(PINNED_EVENT).withThreshold(pinnedThreshold).withStackTrace();
+        recording.start();
+        ticker = Thread.ofVirtual().name("tck-carrier-probe").start(this::tick);
+    }
+
+    /**
+     * Stops recording and collects the pinned events.
+     */
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        ticker.join();
+        recording.stop();
+        Path dump = Files.createTempFile("tck-virtual-threads", ".jfr");
+        try {
+            recording.dump(dump);
+            pinnedEvents = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+                if (PINNED_EVENT.equals(event.getEventType().getName())) {
+                    pinnedEvents.add(event);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    public List<RecordedEvent> getPinnedEvents() {
+        return Collections.unmodifiableList(pinnedEvents);
+    }
+
+    /**
+     * Describes every pinned event whose stack trace contains a frame of a class matching the given filter.
+     */
+    public List<String> describePinnedEvents(Predicate<String> frameClassFilter) {
+        List<String> descriptions = new ArrayList<>();
+        for (RecordedEvent event : pinnedEvents) {
+            RecordedStackTrace stackTrace = event.getStackTrace();
+            if (stackTrace == null) {
+                continue;
+            }
+            boolean matches = false;
+            StringBuilder description = new StringBuilder("pinned for ")
+                .append(event.getDuration().toNanos())
+                .append("ns");
+            for (RecordedFrame frame : stackTrace.getFrames()) {
+                String type = frame.getMethod().getType().getName();
+                matches |= frameClassFilter.test(type);
+                description.append("\n\tat ")
+                    .append(type)
+                    .append('.')
+                    .append(frame.getMethod().getName())
+                    .append(':')
+                    .append(frame.getLineNumber());
+            }
+            if (matches) {
+                descriptions.add(description.toString());
+            }
+        }
+        return descriptions;
+    }
+
+    /**
+     * Returns how late (in nanoseconds) the probe thread woke up from each one millisecond sleep.
+     */
+    public LatencyHistogram getCarrierDelays() {
+        return carrierDelays;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        recording.close();
+    }
+
+    private void tick() {
+        while (running) {
+            long start = System.nanoTime();
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                return;
+            }
+            carrierDelays.recordValue(Math.max(0L, System.nanoTime() - start - TICK_NANOS));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.threading.tck;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import javax.application.tck.VirtualThreadProbe;
+import javax.application.threading.ThreadingHandler;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * Calls {@code ThreadingHandler.executeOutsideUIAsync(Callable)} from thousands of virtual threads, each waiting
+ * for its result, while a {@code VirtualThreadProbe} watches for pinned virtual threads and starved carriers.
+ * <p>
+ * The suite fails when a virtual thread is pinned while running implementation code, as selected by
+ * {@link #implementationFrames(ThreadingHandler)}, or when carrier threads are starved beyond
+ * {@link #carrierDelayBudget()}. Throughput of virtual thread callers is compared with that of a pool of
+ * {@link #platformCallers()} platform threads running the same calls.
+ * <p>
+ * Requires JDK 21 or later.
+ *
+ * @author Andres Almiray
+ */
+public abstract class ThreadingHandlerVirtualThreadTest {
+    protected abstract ThreadingHandler resolveThreadingHandler();
+
+    protected int callers() {
+        return 10_000;
+    }
+
+    protected int platformCallers() {
+        return 200;
+    }
+
+    protected Duration taskDuration() {
+        return Duration.ofMillis(1);
+    }
+
+    protected Duration pinnedThreshold() {
+        return Duration.ZERO;
+    }
+
+    protected Duration carrierDelayBudget() {
+        return Duration.ofSeconds(1);
+    }
+
+    protected Duration timeout() {
+        return Duration.ofSeconds(30);
+    }
+
+    /**
+     * Selects the stack frames that belong to the implementation. Defaults to classes in the package of the
+     * given {@code ThreadingHandler}, or any of its subpackages.
+     */
+    protected Predicate<String> implementationFrames(ThreadingHandler threadingHandler) {
+        String packagePrefix = threadingHandler.getClass().getPackageName() + ".";
+        return className -> className.startsWith(packagePrefix);
+    }
+
+    @Test
+    public void executeOutsideUIAsync_from_virtual_threads_does_not_pin(TestReporter reporter) throws Exception {
+        // given:
+        ThreadingHandler threadingHandler = resolveThreadingHandler();
+        int callers = callers();
+        AtomicInteger completed = new AtomicInteger();
+
+        // when:
+        try (VirtualThreadProbe probe = new VirtualThreadProbe(pinnedThreshold())) {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                submitCallers(executor, threadingHandler, callers, completed);
+            }
+            probe.stop();
+
+            List<String> pinnedInImplementation = probe.describePinnedEvents(implementationFrames(threadingHandler));
+            long carrierDelay = probe.getCarrierDelays().getValueAtPercentile(99d);
+            reporter.publishEntry("virtual.pinned.count", String.valueOf(probe.getPinnedEvents().size()));
+            reporter.publishEntry("virtual.carrier_delay.p99.nanos", String.valueOf(carrierDelay));
+
+            // then:
+            assertAll(
+                () -> assertThat("Completed calls", completed.get(), equalTo(callers)),
+                () -> assertThat("Pinned inside implementation code", pinnedInImplementation, empty()),
+                () -> assertThat("Carrier delay p99 (ns)", carrierDelay, lessThanOrEqualTo(carrierDelayBudget().toNanos()))
+            );
+        }
+    }
+
+    @Test
+    public void virtual_thread_callers_compared_with_platform_thread_callers(TestReporter reporter) throws Exception {
+        // given:
+        ThreadingHandler threadingHandler = resolveThreadingHandler();
+        int callers = callers();
+        AtomicInteger virtualCompleted = new AtomicInteger();
+        AtomicInteger platformCompleted = new AtomicInteger();
+
+        // when:
+        long virtualNanos = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            submitCallers(executor, threadingHandler, callers, virtualCompleted);
+        }
+        virtualNanos = System.nanoTime() - virtualNanos;
+
+        long platformNanos = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(platformCallers())) {
+            submitCallers(executor, threadingHandler, callers, platformCompleted);
+        }
+        platformNanos = System.nanoTime() - platformNanos;
+
+        reporter.publishEntry("virtual.ops_per_sec", String.valueOf(callers * 1_000_000_000L / virtualNanos));
+        reporter.publishEntry("platform.ops_per_sec", String.valueOf(callers * 1_000_000_000L / platformNanos));
+        reporter.publishEntry("virtual.speedup", String.format(Locale.ROOT, "%.2f", (double) platformNanos / virtualNanos));
+
+        // then:
+        assertAll(
+            () -> assertThat("Completed virtual thread calls", virtualCompleted.get(), equalTo(callers)),
+            () -> assertThat("Completed platform thread calls", platformCompleted.get(), equalTo(callers))
+        );
+    }
+
+    private void submitCallers(ExecutorService executor, ThreadingHandler threadingHandler, int callers, AtomicInteger completed) {
+        long sleepMillis = taskDuration().toMillis();
+        long timeoutMillis = timeout().toMillis();
+        for (int i = 0; i < callers; i++) {
+            int input = i;
+            executor.execute(() -> {
+                try {
+                    Integer result = threadingHandler.executeOutsideUIAsync(() -> {
+                        Thread.sleep(sleepMillis);
+                        return input;
+                    }).toCompletableFuture().get(timeoutMillis, TimeUnit.MILLISECONDS);
+                    if (result == input) {
+                        completed.incrementAndGet();
+                    }
+                } catch (Exception ignored) {
+                    // counted as not completed
+                }
+            });
+        }
+    }
+}
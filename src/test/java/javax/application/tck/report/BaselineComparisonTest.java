@@ -0,0 +1,184 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck.report;
+
+import org.junit.jupiter.api.Test;
+
+import javax.application.tck.report.BaselineComparison.Change;
+import javax.application.tck.report.BaselineComparison.Outcome;
+import javax.application.tck.report.PerformanceReport.Measurement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * @author Andres Almiray
+ */
+public class BaselineComparisonTest {
+    private static final String TEST = "a.Test#test";
+
+    @Test
+    public void verify_lower_is_better() {
+        // expect:
+        assertAll(
+            () -> assertThat(outcome("publish.nanos", 100d, 111d, 10d), equalTo(Outcome.REGRESSED)),
+            () -> assertThat(outcome("publish.nanos", 100d, 110d, 10d), equalTo(Outcome.UNCHANGED)),
+            () -> assertThat(outcome("publish.nanos", 100d, 90d, 10d), equalTo(Outcome.UNCHANGED)),
+            () -> assertThat(outcome("publish.nanos", 100d, 89d, 10d), equalTo(Outcome.IMPROVED))
+        );
+    }
+
+    @Test
+    public void verify_higher_is_better() {
+        // expect:
+        assertAll(
+            () -> assertThat(outcome("publish.ops_per_sec", 1000d, 899d, 10d), equalTo(Outcome.REGRESSED)),
+            () -> assertThat(outcome("publish.ops_per_sec", 1000d, 900d, 10d), equalTo(Outcome.UNCHANGED)),
+            () -> assertThat(outcome("publish.ops_per_sec", 1000d, 1101d, 10d), equalTo(Outcome.IMPROVED)),
+            () -> assertThat(outcome("cached.speedup", 4d, 3d, 10d), equalTo(Outcome.REGRESSED))
+        );
+    }
+
+    @Test
+    public void verify_informational() {
+        // expect:
+        assertAll(
+            () -> assertThat(outcome("handlers.count", 10d, 1000d, 10d), equalTo(Outcome.INFORMATIONAL)),
+            () -> assertThat(outcome("cached.ratio", 1d, 0d, 10d), equalTo(Outcome.INFORMATIONAL))
+        );
+    }
+
+    @Test
+    public void verify_zero_baseline() {
+        // given:
+        BaselineComparison comparison = compare(
+            report(measurement("publish.bytes", 0d), measurement("inject.bytes", 0d), measurement("resolve.bytes", 0d), measurement("resolve.ops_per_sec", 0d)),
+            report(measurement("publish.bytes", 8d), measurement("inject.bytes", 0d), measurement("resolve.bytes", -1d), measurement("resolve.ops_per_sec", 5d)),
+            Double.MAX_VALUE, Collections.emptyMap());
+
+        // expect:
+        assertAll(
+            () -> assertThat(change(comparison, "publish.bytes").getOutcome(), equalTo(Outcome.REGRESSED)),
+            () -> assertThat(change(comparison, "publish.bytes").getPercentChange(), equalTo(Double.POSITIVE_INFINITY)),
+            () -> assertThat(change(comparison, "inject.bytes").getOutcome(), equalTo(Outcome.UNCHANGED)),
+            () -> assertThat(change(comparison, "inject.bytes").getPercentChange(), equalTo(0d)),
+            () -> assertThat(change(comparison, "resolve.bytes").getOutcome(), equalTo(Outcome.IMPROVED)),
+            () -> assertThat(change(comparison, "resolve.bytes").getPercentChange(), equalTo(Double.NEGATIVE_INFINITY)),
+            () -> assertThat(change(comparison, "resolve.ops_per_sec").getOutcome(), equalTo(Outcome.IMPROVED)),
+            () -> assertThat(comparison.toText(), containsString("0 -> 8 (+inf%"))
+        );
+    }
+
+    @Test
+    public void verify_maximum_regression_by_suffix() {
+        // given:
+        Map<String, Double> bySuffix = new LinkedHashMap<>();
+        bySuffix.put("bytes", 0d);
+        bySuffix.put("nanos", 50d);
+
+        // when:
+        BaselineComparison comparison = compare(
+            report(measurement("publish.bytes", 64d), measurement("publish.nanos", 100d), measurement("publish.millis", 100d)),
+            report(measurement("publish.bytes", 65d), measurement("publish.nanos", 140d), measurement("publish.millis", 140d)),
+            10d, bySuffix);
+
+        // then:
+        assertAll(
+            () -> assertThat(change(comparison, "publish.bytes").getOutcome(), equalTo(Outcome.REGRESSED)),
+            () -> assertThat(change(comparison, "publish.nanos").getOutcome(), equalTo(Outcome.UNCHANGED)),
+            () -> assertThat(change(comparison, "publish.millis").getOutcome(), equalTo(Outcome.REGRESSED)),
+            () -> assertThat(comparison.getRegressions(), hasSize(2)),
+            () -> assertThat(comparison.hasRegressions(), equalTo(true))
+        );
+    }
+
+    @Test
+    public void verify_new_and_missing() {
+        // given:
+        BaselineComparison comparison = compare(
+            report(measurement("publish.nanos", 100d), measurement("removed.nanos", 100d)),
+            report(measurement("publish.nanos", 100d), measurement("added.nanos", 1000d)),
+            10d, Collections.emptyMap());
+
+        // expect:
+        assertAll(
+            () -> assertThat(change(comparison, "added.nanos").getOutcome(), equalTo(Outcome.NEW)),
+            () -> assertThat(change(comparison, "added.nanos").getPercentChange(), equalTo(Double.NaN)),
+            () -> assertThat(change(comparison, "removed.nanos").getOutcome(), equalTo(Outcome.MISSING)),
+            () -> assertThat(change(comparison, "removed.nanos").getCurrentValue(), equalTo(null)),
+            () -> assertThat(comparison.hasRegressions(), equalTo(false)),
+            () -> assertThat(comparison.getMissing(), hasSize(1)),
+            () -> assertThat(comparison.hasMissing(), equalTo(true)),
+            () -> assertThat(comparison.toText(), containsString("Summary: 0 regressed, 0 improved, 1 unchanged, 0 informational, 1 new, 1 missing"))
+        );
+    }
+
+    @Test
+    public void verify_changes_sorted_by_outcome() {
+        // given:
+        BaselineComparison comparison = compare(
+            report(measurement("b.nanos", 100d), measurement("a.nanos", 100d), measurement("c.nanos", 100d)),
+            report(measurement("b.nanos", 100d), measurement("a.nanos", 50d), measurement("c.nanos", 200d)),
+            10d, Collections.emptyMap());
+
+        // when:
+        List<String> metrics = new ArrayList<>();
+        for (Change change : comparison.getChanges()) {
+            metrics.add(change.getMetric());
+        }
+
+        // then:
+        assertThat(metrics, equalTo(Arrays.asList("c.nanos", "a.nanos", "b.nanos")));
+    }
+
+    private static Outcome outcome(String metric, double baselineValue, double currentValue, double maximumRegression) {
+        BaselineComparison comparison = compare(
+            report(measurement(metric, baselineValue)),
+            report(measurement(metric, currentValue)),
+            maximumRegression, Collections.emptyMap());
+        return change(comparison, metric).getOutcome();
+    }
+
+    private static BaselineComparison compare(PerformanceReport baseline, PerformanceReport current, double maximumRegression, Map<String, Double> bySuffix) {
+        return BaselineComparison.compare(baseline, current, maximumRegression, bySuffix);
+    }
+
+    private static Change change(BaselineComparison comparison, String metric) {
+        return comparison.getChanges().stream()
+            .filter(change -> change.getMetric().equals(metric))
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No change of " + metric));
+    }
+
+    private static PerformanceReport report(Measurement... measurements) {
+        return PerformanceReport.create("", Arrays.asList(measurements));
+    }
+
+    private static Measurement measurement(String metric, double value) {
+        return new Measurement(TEST, metric, value);
+    }
+}
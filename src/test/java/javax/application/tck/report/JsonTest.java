@@ -0,0 +1,100 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck.report;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Andres Almiray
+ */
+public class JsonTest {
+    @Test
+    public void verify_parse_object() {
+        // given:
+        String json = "{ \"label\": \"tck\", \"values\": [1, -2.5, 3e2, 0.25E-1], \"flags\": [true, false, null], \"empty\": {} }";
+
+        // when:
+        @SuppressWarnings("unchecked")
+        Map<String, Object> document = (Map<String, Object>) Json.parse(json);
+
+        // then:
+        assertAll(
+            () -> assertThat(document.get("label"), equalTo("tck")),
+            () -> assertThat(document.get("values"), equalTo(Arrays.asList(1d, -2.5d, 300d, 0.025d))),
+            () -> assertThat(document.get("flags"), equalTo(Arrays.asList(true, false, null))),
+            () -> assertThat(document.get("empty"), equalTo(Collections.emptyMap()))
+        );
+    }
+
+    @Test
+    public void verify_parse_escapes() {
+        // expect:
+        assertAll(
+            () -> assertThat(Json.parse("\"a\\\"b\\\\c\\/d\""), equalTo("a\"b\\c/d")),
+            () -> assertThat(Json.parse("\"\\b\\f\\n\\r\\t\""), equalTo("\b\f\n\r\t")),
+            () -> assertThat(Json.parse("\"\\u00e9\\u00C9\""), equalTo("\u00e9\u00c9")),
+            () -> assertThat(Json.parse("null"), nullValue())
+        );
+    }
+
+    @Test
+    public void verify_quote_roundTrip() {
+        // given:
+        List<String> values = Arrays.asList("", "plain", "quote \" backslash \\", "line\nbreak\rtab\t", "control \u0001 \u001f", "unicode \u00e9 \u4e2d");
+
+        // expect:
+        for (String value : values) {
+            assertThat(Json.parse(Json.quote(value)), equalTo(value));
+        }
+    }
+
+    @Test
+    public void verify_parse_rejects_invalid_numbers() {
+        // expect:
+        for (String number : Arrays.asList("+1", "01", "-01", ".5", "5.", "1e", "1e+", "-", "--1", "1.2.3", "0x10", "NaN", "Infinity")) {
+            assertThrows(IllegalArgumentException.class, () -> Json.parse(number), number);
+        }
+    }
+
+    @Test
+    public void verify_parse_rejects_invalid_strings() {
+        // expect:
+        for (String string : Arrays.asList("\"unterminated", "\"\\x\"", "\"\\u12\"", "\"\\u12g4\"", "\"tab\tinside\"", "\"\\")) {
+            assertThrows(IllegalArgumentException.class, () -> Json.parse(string), string);
+        }
+    }
+
+    @Test
+    public void verify_parse_rejects_invalid_documents() {
+        // expect:
+        for (String document : Arrays.asList("", "{", "[1,]", "{\"a\" 1}", "{\"a\": 1,}", "[1] 2", "tru", "{a: 1}")) {
+            assertThrows(IllegalArgumentException.class, () -> Json.parse(document), document);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck.report;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.application.tck.report.PerformanceReport.Measurement;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+/**
+ * @author Andres Almiray
+ */
+public class PerformanceGateTest {
+    private static final String TEST = "a.Test#test";
+
+    @TempDir
+    Path directory;
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    @Test
+    public void verify_unchanged_report_passes() throws IOException {
+        // given:
+        Path baseline = write("baseline.json", 100d, 64d);
+        Path report = write("report.json", 105d, 64d);
+        Path summary = directory.resolve("summary/performance.txt");
+
+        // when:
+        int status = run("--report", report, "--baseline", baseline, "--summary", summary);
+
+        // then:
+        assertAll(
+            () -> assertThat(status, equalTo(0)),
+            () -> assertThat(output(), containsString("2 unchanged")),
+            () -> assertThat(new String(Files.readAllBytes(summary), StandardCharsets.UTF_8), equalTo(output()))
+        );
+    }
+
+    @Test
+    public void verify_regression_fails() throws IOException {
+        // given:
+        Path baseline = write("baseline.json", 100d, 64d);
+        Path report = write("report.json", 120d, 64d);
+
+        // when:
+        int status = run("--report", report, "--baseline", baseline);
+
+        // then:
+        assertAll(
+            () -> assertThat(status, equalTo(1)),
+            () -> assertThat(output(), containsString("1 regressed"))
+        );
+    }
+
+    @Test
+    public void verify_maximum_regression_options() throws IOException {
+        // given:
+        Path baseline = write("baseline.json", 100d, 64d);
+        Path report = write("report.json", 120d, 65d);
+
+        // expect:
+        assertAll(
+            () -> assertThat(run("--report", report, "--baseline", baseline, "--max-regression", "25"), equalTo(0)),
+            () -> assertThat(run("--report", report, "--baseline", baseline, "--max-regression", "25", "--max-regression", "bytes=0"), equalTo(1)),
+            () -> assertThat(run("--report", report, "--baseline", baseline, "--max-regression", "25", "--max-regression", ".bytes=5"), equalTo(0))
+        );
+    }
+
+    @Test
+    public void verify_missing_measurement_fails_only_when_requested() throws IOException {
+        // given:
+        Path baseline = write("baseline.json", 100d, 64d);
+        Path report = directory.resolve("report.json");
+        PerformanceReport.create("", Arrays.asList(new Measurement(TEST, "publish.nanos", 100d))).write(report);
+
+        // expect:
+        assertAll(
+            () -> assertThat(run("--report", report, "--baseline", baseline), equalTo(0)),
+            () -> assertThat(run("--report", report, "--baseline", baseline, "--fail-on-missing"), equalTo(1)),
+            () -> assertThat(output(), containsString("1 missing"))
+        );
+    }
+
+    @Test
+    public void verify_update_baseline() throws IOException {
+        // given:
+        Path baseline = directory.resolve("baseline/performance.json");
+        Path report = write("report.json", 100d, 64d);
+
+        // when:
+        int status = run("--report", report, "--baseline", baseline, "--update-baseline");
+
+        // then:
+        assertAll(
+            () -> assertThat(status, equalTo(0)),
+            () -> assertThat(Files.readAllBytes(baseline), equalTo(Files.readAllBytes(report))),
+            () -> assertThat(run("--report", report, "--baseline", baseline, "--max-regression", "0"), equalTo(0))
+        );
+    }
+
+    @Test
+    public void verify_invalid_arguments() throws IOException {
+        // given:
+        Path report = write("report.json", 100d, 64d);
+        Path invalid = directory.resolve("invalid.json");
+        Files.write(invalid, "{\"formatVersion\": 1, \"label\": +1}".getBytes(StandardCharsets.UTF_8));
+
+        // expect:
+        assertAll(
+            () -> assertThat(run(), equalTo(2)),
+            () -> assertThat(run("--report", report), equalTo(2)),
+            () -> assertThat(run("--report", report, "--baseline"), equalTo(2)),
+            () -> assertThat(run("--report", report, "--baseline", report, "--max-regression", "-1"), equalTo(2)),
+            () -> assertThat(run("--report", report, "--baseline", report, "--max-regression", "bytes=many"), equalTo(2)),
+            () -> assertThat(run("--report", report, "--baseline", report, "--unknown"), equalTo(2)),
+            () -> assertThat(run("--report", report, "--baseline", directory.resolve("absent.json")), equalTo(2)),
+            () -> assertThat(run("--report", invalid, "--baseline", report), equalTo(2)),
+            () -> assertThat(run("--report", invalid, "--baseline", report, "--update-baseline"), equalTo(2))
+        );
+    }
+
+    private int run(Object... args) {
+        String[] arguments = new String[args.length];
+        for (int i = 0; i < args.length; i++) {
+            arguments[i] = String.valueOf(args[i]);
+        }
+        output.reset();
+        try (PrintStream out = new PrintStream(output, true, "UTF-8")) {
+            return PerformanceGate.run(arguments, out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String output() {
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private Path write(String name, double nanos, double bytes) throws IOException {
+        Path file = directory.resolve(name);
+        PerformanceReport.create("", Arrays.asList(
+            new Measurement(TEST, "publish.nanos", nanos),
+            new Measurement(TEST, "publish.bytes", bytes))).write(file);
+        return file;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * SPDX-License-Identifier: Apache-2.0
+ *
+ * Copyright 2015-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package javax.application.tck.report;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.application.tck.report.PerformanceReport.Measurement;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Andres Almiray
+ */
+public class PerformanceReportTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void verify_toJson_fromJson_roundTrip() {
+        // given:
+        PerformanceReport report = PerformanceReport.create("impl \"1.0\"", Arrays.asList(
+            new Measurement("b.Test#second", "event.publish.nanos", 1250.5d),
+            new Measurement("a.Test#first", "event.publish.bytes", 64d),
+            new Measurement("a.Test#first", "event.count", 3d)));
+
+        // when:
+        PerformanceReport parsed = PerformanceReport.fromJson(report.toJson());
+
+        // then:
+        assertAll(
+            () -> assertThat(parsed.getLabel(), equalTo(report.getLabel())),
+            () -> assertThat(parsed.getCreatedAt(), equalTo(report.getCreatedAt())),
+            () -> assertThat(parsed.getEnvironment(), equalTo(report.getEnvironment())),
+            () -> assertThat(describe(parsed.getMeasurements()), equalTo(Arrays.asList(
+                "a.Test#first event.count 3.0 INFORMATIONAL",
+                "a.Test#first event.publish.bytes 64.0 LOWER_IS_BETTER",
+                "b.Test#second event.publish.nanos 1250.5 LOWER_IS_BETTER"))),
+            () -> assertThat(parsed.toJson(), equalTo(report.toJson()))
+        );
+    }
+
+    @Test
+    public void verify_write_read_roundTrip() throws IOException {
+        // given:
+        PerformanceReport report = PerformanceReport.create("", Collections.singletonList(
+            new Measurement("a.Test#first", "event.publish.ops_per_sec", 1e6d)));
+        Path file = directory.resolve("nested/performance.json");
+
+        // when:
+        report.write(file);
+
+        // then:
+        assertThat(PerformanceReport.read(file).toJson(), equalTo(report.toJson()));
+    }
+
+    @Test
+    public void verify_fromJson_rejects_invalid_reports() {
+        // expect:
+        assertAll(
+            () -> assertThrows(IllegalArgumentException.class, () -> PerformanceReport.fromJson("[]")),
+            () -> assertThrows(IllegalArgumentException.class, () -> PerformanceReport.fromJson("{}")),
+            () -> assertThrows(IllegalArgumentException.class, () -> PerformanceReport.fromJson("{\"formatVersion\": 2}")),
+            () -> assertThrows(IllegalArgumentException.class, () -> PerformanceReport.fromJson(
+                "{\"formatVersion\": 1, \"measurements\": [{\"test\": \"a\", \"metric\": \"b.nanos\"}]}")),
+            () -> assertThrows(IllegalArgumentException.class, () -> PerformanceReport.fromJson(
+                "{\"formatVersion\": 1, \"measurements\": [{\"test\": \"a\", \"metric\": \"b.nanos\", \"value\": \"1\"}]}")),
+            () -> assertThrows(IllegalArgumentException.class, () -> PerformanceReport.fromJson(
+                "{\"formatVersion\": 1, \"measurements\": [{\"test\": \"a\", \"metric\": \"b.nanos\", \"value\": 1e999}]}"))
+        );
+    }
+
+    @Test
+    public void verify_mergeInto_keeps_measurements_of_existing_report() throws IOException {
+        // given:
+        Path file = directory.resolve("performance.json");
+        PerformanceReport.create("first", Arrays.asList(
+            new Measurement("a.Test#first", "event.publish.nanos", 100d),
+            new Measurement("a.Test#first", "event.publish.bytes", 64d))).mergeInto(file);
+
+        // when:
+        PerformanceReport.create("second", Arrays.asList(
+            new Measurement("a.Test#first", "event.publish.nanos", 120d),
+            new Measurement("b.Test#second", "event.publish.nanos", 200d))).mergeInto(file);
+
+        // then:
+        PerformanceReport merged = PerformanceReport.read(file);
+        assertAll(
+            () -> assertThat(merged.getLabel(), equalTo("second")),
+            () -> assertThat(describe(merged.getMeasurements()), equalTo(Arrays.asList(
+                "a.Test#first event.publish.bytes 64.0 LOWER_IS_BETTER",
+                "a.Test#first event.publish.nanos 120.0 LOWER_IS_BETTER",
+                "b.Test#second event.publish.nanos 200.0 LOWER_IS_BETTER")))
+        );
+    }
+
+    @Test
+    public void verify_mergeInto_concurrently() throws Exception {
+        // given:
+        Path file = directory.resolve("performance.json");
+        int writers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            String test = "a.Test#test" + i;
+            tasks.add(() -> {
+                PerformanceReport.create("", Collections.singletonList(new Measurement(test, "event.publish.nanos", 1d))).mergeInto(file);
+                return null;
+            });
+        }
+
+        // when:
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // then:
+        assertThat(PerformanceReport.read(file).getMeasurements(), hasSize(writers));
+    }
+
+    @Test
+    public void verify_mergeInto_rejects_invalid_existing_file() throws IOException {
+        // given:
+        Path file = directory.resolve("performance.json");
+        Files.write(file, "not a report".getBytes(StandardCharsets.UTF_8));
+        PerformanceReport report = PerformanceReport.create("", Collections.emptyList());
+
+        // when:
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> report.mergeInto(file));
+
+        // then:
+        assertAll(
+            () -> assertThat(exception.getMessage(), containsString("position 0")),
+            () -> assertThat(new String(Files.readAllBytes(file), StandardCharsets.UTF_8), equalTo("not a report"))
+        );
+    }
+
+    private static List<String> describe(List<Measurement> measurements) {
+        List<String> descriptions = new ArrayList<>();
+        for (Measurement measurement : measurements) {
+            descriptions.add(measurement.getTest() + " " + measurement.getMetric() + " " + measurement.getValue() + " " + measurement.getDirection());
+        }
+        return descriptions;
+    }
+}